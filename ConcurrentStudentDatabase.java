@@ -0,0 +1,455 @@
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.time.LocalDate;
+import java.io.*;
+
+/**
+ * ConcurrentStudentDatabase class providing the StudentDatabase operations to many threads at once
+ * Writers to the same student serialize on a striped lock and publish a fresh Student copy,
+ * so getStudent and the searches read without locking and never see a half-updated record.
+ * There are no secondary indexes: searches, queries, pages and statistics scan the current students.
+ * Persistence is shared with StudentDatabase: the same journal, PersistenceScheduler and snapshot
+ * file, and the same StudentMetrics. Students returned from this class must be treated as read-only
+ */
+public class ConcurrentStudentDatabase implements Closeable {
+    private static final String DATA_FILE = "students.dat";
+    private static final int STRIPES = 64;
+    private static final String LOG_SUFFIX = ".log";
+    
+    private final ConcurrentHashMap<Integer, Student> students;
+    private final ConcurrentHashMap<String, Integer> emailIndex;    // case-folded email -> student ID
+    private final AtomicInteger nextStudentId;
+    private final ReentrantLock[] stripes;
+    private final ReadWriteLock persistenceLock;    // writers share it; compaction takes it exclusively
+    private final AtomicBoolean compacting;
+    private final String dataFile;
+    private final PersistenceScheduler persistence;
+    private final StudentMetrics metrics;
+    private final boolean ownsMetrics;    // created from the system property, so closed with the database
+    
+    public ConcurrentStudentDatabase() {
+        this(DATA_FILE);
+    }
+    
+    public ConcurrentStudentDatabase(String dataFile) {
+        this(dataFile, StudentMetrics.fromSystemProperty(dataFile), true);
+    }
+    
+    // Record operation metrics into the given StudentMetrics, which the caller closes
+    public ConcurrentStudentDatabase(String dataFile, StudentMetrics metrics) {
+        this(dataFile, metrics, false);
+    }
+    
+    private ConcurrentStudentDatabase(String dataFile, StudentMetrics metrics, boolean ownsMetrics) {
+        this.metrics = metrics;
+        this.ownsMetrics = ownsMetrics;
+        this.students = new ConcurrentHashMap<>();
+        this.emailIndex = new ConcurrentHashMap<>();
+        this.nextStudentId = new AtomicInteger(1001); // Starting ID
+        this.stripes = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.persistenceLock = new ReentrantReadWriteLock();
+        this.compacting = new AtomicBoolean();
+        this.dataFile = dataFile;
+        StudentJournal journal = new StudentJournal(dataFile + LOG_SUFFIX);
+        long start = metrics.start();
+        metrics.record(StudentMetrics.Operation.LOAD, start, loadFromFile(journal));
+        this.persistence = new PersistenceScheduler(journal, metrics);
+    }
+    
+    // Add a new student; returns the new ID, or -1 if the email is already taken
+    public int addStudent(String firstName, String lastName, String email,
+                          String phoneNumber, LocalDate dateOfBirth, String address,
+                          String course, int semester) {
+        long start = metrics.start();
+        // Claiming the email makes the uniqueness check and the insert one atomic step; the ID is only
+        // taken once the claim succeeds, so a rejected add does not use one up
+        int[] claimed = {-1};
+        emailIndex.computeIfAbsent(emailKey(email), key -> claimed[0] = nextStudentId.getAndIncrement());
+        int studentId = claimed[0];
+        if (studentId < 0) {
+            metrics.record(StudentMetrics.Operation.ADD, start, false);
+            return -1;
+        }
+        
+        Student student = new Student(studentId, firstName, lastName, email,
+                                      phoneNumber, dateOfBirth, address, course, semester);
+        ReentrantLock lock = lockFor(studentId);
+        lock.lock();
+        try {
+            students.put(studentId, student);
+            journalPut(student);
+        } finally {
+            lock.unlock();
+        }
+        metrics.record(StudentMetrics.Operation.ADD, start, true);
+        return studentId;
+    }
+    
+    // Get student by ID
+    public Student getStudent(int studentId) {
+        long start = metrics.start();
+        Student student = students.get(studentId);
+        metrics.record(StudentMetrics.Operation.GET, start, student != null);
+        return student;
+    }
+    
+    public Student findByEmail(String email) {
+        Integer studentId = emailIndex.get(emailKey(email));
+        return studentId == null ? null : students.get(studentId);
+    }
+    
+    // Update student information; returns false if the student is missing or the email is taken
+    public boolean updateStudent(int studentId, String firstName, String lastName,
+                                 String email, String phoneNumber, String address,
+                                 String course, int semester, double gpa) {
+        return update(studentId, null, firstName, lastName, email, phoneNumber, address, course, semester, gpa) != null;
+    }
+    
+    // Update the student only if it is still the given copy, so a caller can merge changes into what it
+    // read; returns the new copy, or null if the student has changed or gone since, or the email is taken
+    public Student updateStudent(Student expected, String firstName, String lastName,
+                                 String email, String phoneNumber, String address,
+                                 String course, int semester, double gpa) {
+        return update(expected.getStudentId(), expected, firstName, lastName, email, phoneNumber, address, course, semester, gpa);
+    }
+    
+    private Student update(int studentId, Student expected, String firstName, String lastName,
+                           String email, String phoneNumber, String address,
+                           String course, int semester, double gpa) {
+        long start = metrics.start();
+        Student updated = null;
+        try {
+            updated = applyUpdate(studentId, expected, firstName, lastName, email, phoneNumber, address, course, semester, gpa);
+            return updated;
+        } finally {
+            metrics.record(StudentMetrics.Operation.UPDATE, start, updated != null);
+        }
+    }
+    
+    private Student applyUpdate(int studentId, Student expected, String firstName, String lastName,
+                                String email, String phoneNumber, String address,
+                                String course, int semester, double gpa) {
+        ReentrantLock lock = lockFor(studentId);
+        lock.lock();
+        try {
+            Student current = students.get(studentId);
+            if (current == null || (expected != null && current != expected)) {
+                return null;
+            }
+            
+            String oldKey = emailKey(current.getEmail());
+            String newKey = emailKey(email);
+            if (!newKey.equals(oldKey)) {
+                Integer owner = emailIndex.putIfAbsent(newKey, studentId);
+                if (owner != null && owner != studentId) {
+                    return null;
+                }
+            }
+            
+            Student updated = current.copy();
+            updated.setFirstName(firstName);
+            updated.setLastName(lastName);
+            updated.setEmail(email);
+            updated.setPhoneNumber(phoneNumber);
+            updated.setAddress(address);
+            updated.setCourse(course);
+            updated.setSemester(semester);
+            updated.setGpa(gpa);
+            students.put(studentId, updated);
+            if (!newKey.equals(oldKey)) {
+                emailIndex.remove(oldKey, studentId);
+            }
+            journalPut(updated);
+            return updated;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Delete student; returns the removed student, or null if there was none
+    public Student deleteStudent(int studentId) {
+        long start = metrics.start();
+        Student removed = null;
+        ReentrantLock lock = lockFor(studentId);
+        lock.lock();
+        try {
+            removed = students.remove(studentId);
+            if (removed == null) {
+                return null;
+            }
+            emailIndex.remove(emailKey(removed.getEmail()), studentId);
+            journalDelete(studentId);
+            return removed;
+        } finally {
+            lock.unlock();
+            metrics.record(StudentMetrics.Operation.DELETE, start, removed != null);
+        }
+    }
+    
+    // Add a subject to a student
+    public boolean addSubject(int studentId, String subject) {
+        ReentrantLock lock = lockFor(studentId);
+        lock.lock();
+        try {
+            Student current = students.get(studentId);
+            if (current == null) {
+                return false;
+            }
+            Student updated = current.copy();
+            updated.addSubject(subject);
+            students.put(studentId, updated);
+            journalPut(updated);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Remove a subject from a student
+    public boolean removeSubject(int studentId, String subject) {
+        ReentrantLock lock = lockFor(studentId);
+        lock.lock();
+        try {
+            Student current = students.get(studentId);
+            if (current == null) {
+                return false;
+            }
+            Student updated = current.copy();
+            updated.removeSubject(subject);
+            students.put(studentId, updated);
+            journalPut(updated);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Search students by name (substring of the full name)
+    public List<Student> searchByName(String name) {
+        long start = metrics.start();
+        StudentQuery query = new StudentQuery();
+        query.setName(name);
+        List<Student> results = scan(query);
+        metrics.record(StudentMetrics.Operation.SEARCH_BY_NAME, start, true);
+        return results;
+    }
+    
+    // Search students by course (substring of the course name)
+    public List<Student> searchByCourse(String course) {
+        long start = metrics.start();
+        StudentQuery query = new StudentQuery();
+        query.setCourse(course);
+        List<Student> results = scan(query);
+        metrics.record(StudentMetrics.Operation.SEARCH_BY_COURSE, start, true);
+        return results;
+    }
+    
+    // Search students by semester
+    public List<Student> searchBySemester(int semester) {
+        long start = metrics.start();
+        StudentQuery query = new StudentQuery();
+        query.setSemester(semester);
+        List<Student> results = scan(query);
+        metrics.record(StudentMetrics.Operation.SEARCH_BY_SEMESTER, start, true);
+        return results;
+    }
+    
+    // Run a query over every student; there are no secondary indexes, so each query scans
+    public List<Student> query(StudentQuery query) {
+        long start = metrics.start();
+        List<Student> results = scan(query);
+        metrics.record(StudentMetrics.Operation.QUERY, start, true);
+        return results;
+    }
+    
+    // Up to limit students in the given order after the cursor (null to start), with the same cursors as
+    // StudentDatabase.getStudentPage; each page scans every student but only sorts the ones it keeps
+    public StudentPage getStudentPage(StudentQuery.SortKey sortKey, String cursor, int limit) {
+        long start = metrics.start();
+        boolean ok = false;
+        try {
+            StudentPage page = pageAfter(sortKey, cursor, limit);
+            ok = true;
+            return page;
+        } finally {
+            metrics.record(StudentMetrics.Operation.PAGE, start, ok);
+        }
+    }
+    
+    private StudentPage pageAfter(StudentQuery.SortKey sortKey, String cursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Invalid limit: " + limit);
+        }
+        SortedStudentView<?> order;
+        switch (sortKey) {
+            case NAME:
+                order = SortedStudentView.byName();
+                break;
+            case GPA:
+                order = SortedStudentView.byGpa();
+                break;
+            default:
+                order = SortedStudentView.byId();
+        }
+        StudentPage page = order.pageAfter(students.values(), StudentDatabase.viewCursor(sortKey, cursor), limit);
+        if (page.hasMore()) {
+            page = new StudentPage(page.getStudents(), StudentDatabase.encodeCursor(sortKey, page.getNextCursor()));
+        }
+        return page;
+    }
+    
+    // Statistics counted afresh from the current students
+    public StudentStatistics.Snapshot getStatistics() {
+        StudentStatistics statistics = new StudentStatistics();
+        for (Student student : students.values()) {
+            statistics.add(student);
+        }
+        return statistics.snapshot();
+    }
+    
+    // Get all students
+    public List<Student> getAllStudents() {
+        return new ArrayList<>(students.values());
+    }
+    
+    // Get total number of students
+    public int getTotalStudents() {
+        return students.size();
+    }
+    
+    // Fold the journal into a fresh snapshot; writers wait to journal while it runs
+    public void compact() {
+        persistenceLock.writeLock().lock();
+        try {
+            // Copied first, so the header count matches the records; IDs are taken before students are
+            // added, so the next ID read afterwards is above every ID in the copy
+            Student[] current = students.values().toArray(new Student[0]);
+            long start = metrics.start();
+            boolean saved = SnapshotFile.save(dataFile, nextStudentId.get(), Arrays.asList(current), metrics);
+            metrics.record(StudentMetrics.Operation.SAVE, start, saved);
+            if (saved) {
+                persistence.reset();
+            }
+        } catch (IOException e) {
+            System.out.println("Error truncating journal: " + e.getMessage());
+        } finally {
+            persistenceLock.writeLock().unlock();
+        }
+    }
+    
+    public StudentMetrics getMetrics() {
+        return metrics;
+    }
+    
+    // Completes once every change made so far is on disk
+    public CompletableFuture<Void> flush() {
+        return persistence.flush();
+    }
+    
+    // Flush the journal and release the log file
+    @Override
+    public void close() {
+        persistence.close();
+        if (ownsMetrics) {
+            metrics.close();
+        }
+    }
+    
+    private ReentrantLock lockFor(int studentId) {
+        return stripes[Math.floorMod(studentId, STRIPES)];
+    }
+    
+    // Called with the student's stripe held, so journal order matches map order for each student
+    private void journalPut(Student student) {
+        persistenceLock.readLock().lock();
+        try {
+            persistence.appendPut(student);
+        } catch (IOException e) {
+            System.out.println("Error writing journal: " + e.getMessage());
+        } finally {
+            persistenceLock.readLock().unlock();
+        }
+        compactIfNeeded();
+    }
+    
+    private void journalDelete(int studentId) {
+        persistenceLock.readLock().lock();
+        try {
+            persistence.appendDelete(studentId);
+        } catch (IOException e) {
+            System.out.println("Error writing journal: " + e.getMessage());
+        } finally {
+            persistenceLock.readLock().unlock();
+        }
+        compactIfNeeded();
+    }
+    
+    private void compactIfNeeded() {
+        if (persistence.needsCompaction()) {
+            compactAsync();
+        }
+    }
+    
+    // The caller holds a stripe lock, so compaction (which waits for every writer) runs on its own thread
+    private void compactAsync() {
+        if (!compacting.compareAndSet(false, true)) {
+            return;
+        }
+        Thread compactor = new Thread(() -> {
+            try {
+                compact();
+            } finally {
+                compacting.set(false);
+            }
+        }, "student-compactor");
+        compactor.setDaemon(true);
+        compactor.start();
+    }
+    
+    // Load the snapshot from file, then replay the journal tail on top of it; false if anything could not be read
+    private boolean loadFromFile(StudentJournal journal) {
+        boolean ok = true;
+        File file = new File(dataFile);
+        if (file.exists()) {
+            try {
+                nextStudentId.set(SnapshotFile.load(file, student -> students.put(student.getStudentId(), student)));
+            } catch (IOException e) {
+                System.out.println("Error loading data: " + e.getMessage());
+                ok = false;
+                students.clear();
+            }
+        }
+        
+        try {
+            journal.replay(student -> {
+                students.put(student.getStudentId(), student);
+                nextStudentId.accumulateAndGet(student.getStudentId() + 1, Math::max);
+            }, studentId -> students.remove(studentId));
+        } catch (IOException e) {
+            System.out.println("Error replaying journal: " + e.getMessage());
+            ok = false;
+        }
+        
+        for (Student student : students.values()) {
+            emailIndex.put(emailKey(student.getEmail()), student.getStudentId());
+        }
+        return ok;
+    }
+    
+    private List<Student> scan(StudentQuery query) {
+        return query.run(students.values().toArray(new Student[0]));
+    }
+    
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
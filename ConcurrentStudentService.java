@@ -0,0 +1,116 @@
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * ConcurrentStudentService class exposing ConcurrentStudentDatabase through the StudentStore operations
+ * Input is validated as StudentService does, but nothing is serialized here: each call goes
+ * straight to the database, whose writers only wait for writers to the same lock stripe and whose
+ * readers never wait. The students returned are the database's published copies and are never
+ * changed afterwards, so they can be read without a lock
+ */
+public class ConcurrentStudentService implements StudentStore {
+    private final ConcurrentStudentDatabase database;
+    
+    public ConcurrentStudentService(ConcurrentStudentDatabase database) {
+        this.database = database;
+    }
+    
+    @Override
+    public StudentService.Result<Student> addStudent(String firstName, String lastName, String email,
+                                                     String phoneNumber, LocalDate dateOfBirth, String address,
+                                                     String course, int semester) {
+        String error = StudentService.validateNew(firstName, lastName, email, course, semester, dateOfBirth);
+        if (error != null) {
+            return StudentService.Result.error(StudentService.Status.INVALID_INPUT, error);
+        }
+        int studentId = database.addStudent(firstName, lastName, email, phoneNumber, dateOfBirth, address, course, semester);
+        if (studentId < 0) {
+            return StudentService.Result.error(StudentService.Status.DUPLICATE_EMAIL, "Email already exists: " + email);
+        }
+        return getStudent(studentId);    // not found only if another request deleted it already
+    }
+    
+    @Override
+    public StudentService.Result<Student> getStudent(int studentId) {
+        Student student = database.getStudent(studentId);
+        return student == null ? StudentService.notFound(studentId) : StudentService.Result.ok(student);
+    }
+    
+    @Override
+    public StudentService.Result<Student> updateStudent(int studentId, String firstName, String lastName,
+                                                        String email, String phoneNumber, String address,
+                                                        String course, int semester, double gpa) {
+        String error = StudentService.validateUpdate(firstName, lastName, email, course, semester, gpa);
+        if (error != null) {
+            return StudentService.Result.error(StudentService.Status.INVALID_INPUT, error);
+        }
+        if (!database.updateStudent(studentId, firstName, lastName, email, phoneNumber, address, course, semester, gpa)) {
+            return database.getStudent(studentId) == null ? StudentService.notFound(studentId)
+                : StudentService.Result.error(StudentService.Status.DUPLICATE_EMAIL, "Email already exists: " + email);
+        }
+        return getStudent(studentId);
+    }
+    
+    // Merges into the copy it read and retries if another update replaced that copy in the meantime
+    @Override
+    public StudentService.Result<Student> updateStudentFields(int studentId, String firstName, String lastName,
+                                                              String email, String phoneNumber, String address,
+                                                              String course, Integer semester, Double gpa) {
+        while (true) {
+            Student current = database.getStudent(studentId);
+            if (current == null) {
+                return StudentService.notFound(studentId);
+            }
+            String newFirstName = firstName != null ? firstName : current.getFirstName();
+            String newLastName = lastName != null ? lastName : current.getLastName();
+            String newEmail = email != null ? email : current.getEmail();
+            String newCourse = course != null ? course : current.getCourse();
+            int newSemester = semester != null ? semester : current.getSemester();
+            double newGpa = gpa != null ? gpa : current.getGpa();
+            String error = StudentService.validateUpdate(newFirstName, newLastName, newEmail, newCourse, newSemester, newGpa);
+            if (error != null) {
+                return StudentService.Result.error(StudentService.Status.INVALID_INPUT, error);
+            }
+            Student updated = database.updateStudent(current, newFirstName, newLastName, newEmail,
+                                                     phoneNumber != null ? phoneNumber : current.getPhoneNumber(),
+                                                     address != null ? address : current.getAddress(),
+                                                     newCourse, newSemester, newGpa);
+            if (updated != null) {
+                return StudentService.Result.ok(updated);
+            }
+            if (database.getStudent(studentId) == current) {
+                return StudentService.Result.error(StudentService.Status.DUPLICATE_EMAIL, "Email already exists: " + newEmail);
+            }
+        }
+    }
+    
+    @Override
+    public StudentService.Result<Student> deleteStudent(int studentId) {
+        Student student = database.deleteStudent(studentId);
+        return student == null ? StudentService.notFound(studentId) : StudentService.Result.ok(student);
+    }
+    
+    @Override
+    public StudentService.Result<List<Student>> query(StudentQuery query) {
+        return StudentService.Result.ok(database.query(query));
+    }
+    
+    @Override
+    public StudentService.Result<StudentPage> listStudents(StudentQuery.SortKey sortKey, String cursor, int limit) {
+        try {
+            return StudentService.Result.ok(database.getStudentPage(sortKey, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return StudentService.Result.error(StudentService.Status.INVALID_INPUT, e.getMessage());
+        }
+    }
+    
+    @Override
+    public StudentService.Result<StudentStatistics.Snapshot> getStatistics() {
+        return StudentService.Result.ok(database.getStatistics());
+    }
+    
+    @Override
+    public void close() {
+        database.close();
+    }
+}
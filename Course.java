@@ -1,6 +1,9 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Course class representing academic courses
  * Demonstrates encapsulation and data management
+ * Seats are counted with compare-and-set, so concurrent enrollments never exceed maxCapacity
  */
 public class Course {
     private String courseId;
@@ -10,8 +13,8 @@ public class Course {
     private String department;
     private String instructor;
     private String semester;
-    private int maxCapacity;
-    private int currentEnrollment;
+    private volatile int maxCapacity;
+    private final AtomicInteger currentEnrollment;
     private String[] prerequisites;
     
     // Constructor
@@ -26,7 +29,7 @@ public class Course {
         this.instructor = instructor;
         this.semester = semester;
         this.maxCapacity = maxCapacity;
-        this.currentEnrollment = 0;
+        this.currentEnrollment = new AtomicInteger();
         this.prerequisites = new String[0];
     }
     
@@ -39,7 +42,7 @@ public class Course {
     public String getInstructor() { return instructor; }
     public String getSemester() { return semester; }
     public int getMaxCapacity() { return maxCapacity; }
-    public int getCurrentEnrollment() { return currentEnrollment; }
+    public int getCurrentEnrollment() { return currentEnrollment.get(); }
     public String[] getPrerequisites() { return prerequisites.clone(); }
     
     // Setters
@@ -52,35 +55,45 @@ public class Course {
     
     // Business methods
     public boolean hasAvailableSeats() {
-        return currentEnrollment < maxCapacity;
+        return currentEnrollment.get() < maxCapacity;
     }
     
+    // Reserve a seat; the check and the increment are one atomic step
     public boolean enrollStudent() {
-        if (hasAvailableSeats()) {
-            currentEnrollment++;
-            return true;
+        while (true) {
+            int enrolled = currentEnrollment.get();
+            if (enrolled >= maxCapacity) {
+                return false;
+            }
+            if (currentEnrollment.compareAndSet(enrolled, enrolled + 1)) {
+                return true;
+            }
         }
-        return false;
     }
     
+    // Release a seat
     public boolean dropStudent() {
-        if (currentEnrollment > 0) {
-            currentEnrollment--;
-            return true;
+        while (true) {
+            int enrolled = currentEnrollment.get();
+            if (enrolled <= 0) {
+                return false;
+            }
+            if (currentEnrollment.compareAndSet(enrolled, enrolled - 1)) {
+                return true;
+            }
         }
-        return false;
     }
     
     public int getAvailableSeats() {
-        return maxCapacity - currentEnrollment;
+        return Math.max(0, maxCapacity - currentEnrollment.get());
     }
     
     public double getEnrollmentPercentage() {
-        return (double) currentEnrollment / maxCapacity * 100;
+        return (double) currentEnrollment.get() / maxCapacity * 100;
     }
     
     public boolean isFull() {
-        return currentEnrollment >= maxCapacity;
+        return currentEnrollment.get() >= maxCapacity;
     }
     
     public void displayCourseInfo() {
@@ -92,7 +105,7 @@ public class Course {
         System.out.println("Department: " + department);
         System.out.println("Instructor: " + instructor);
         System.out.println("Semester: " + semester);
-        System.out.println("Enrollment: " + currentEnrollment + "/" + maxCapacity);
+        System.out.println("Enrollment: " + currentEnrollment.get() + "/" + maxCapacity);
         System.out.println("Available Seats: " + getAvailableSeats());
         System.out.println("Enrollment %: " + String.format("%.1f", getEnrollmentPercentage()) + "%");
         if (prerequisites.length > 0) {
@@ -113,7 +126,7 @@ public class Course {
                 ", Name='" + courseName + '\'' +
                 ", Credits=" + creditHours +
                 ", Instructor='" + instructor + '\'' +
-                ", Enrollment=" + currentEnrollment + "/" + maxCapacity +
+                ", Enrollment=" + currentEnrollment.get() + "/" + maxCapacity +
                 '}';
     }
     
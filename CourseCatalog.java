@@ -0,0 +1,264 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * CourseCatalog class holding the courses and the student <-> course enrollment relation
+ * Seats are reserved lock-free through Course's atomic seat counter, so a registration rush on
+ * one course never oversubscribes it. Students who find a course full join its first-come,
+ * first-served waitlist and are moved in as seats free up. Enrollment also requires every direct
+ * and indirect prerequisite to be completed, checked against a PrerequisiteGraph.
+ * Safe for use from many threads
+ */
+public class CourseCatalog {
+    public enum EnrollmentResult { ENROLLED, WAITLISTED, ALREADY_ENROLLED, ALREADY_WAITLISTED, MISSING_PREREQUISITES, NO_SUCH_COURSE, NO_SUCH_STUDENT }
+    
+    private static final long[] NONE_COMPLETED = new long[0];
+    
+    private final ConcurrentHashMap<String, Offering> offerings;              // course ID -> course and rosters
+    private final ConcurrentHashMap<Integer, Set<String>> coursesByStudent;   // student ID -> enrolled course IDs
+    private final ConcurrentHashMap<Integer, long[]> completedCourses;        // student ID -> graph indexes; copy-on-write
+    private final PrerequisiteGraph prerequisites;
+    
+    public CourseCatalog() {
+        this.offerings = new ConcurrentHashMap<>();
+        this.coursesByStudent = new ConcurrentHashMap<>();
+        this.completedCourses = new ConcurrentHashMap<>();
+        this.prerequisites = new PrerequisiteGraph();
+    }
+    
+    // Add a course; returns false if its ID is already taken or its prerequisites would form a cycle
+    public boolean addCourse(Course course) {
+        String courseId = course.getCourseId();
+        if (offerings.putIfAbsent(courseId, new Offering(course)) != null) {
+            return false;
+        }
+        prerequisites.indexOf(courseId);
+        String[] prerequisiteIds = course.getPrerequisites();
+        if (prerequisiteIds.length > 0 && !prerequisites.setPrerequisites(courseId, prerequisiteIds)) {
+            offerings.remove(courseId);
+            return false;
+        }
+        return true;
+    }
+    
+    // Replace a course's prerequisites; use this rather than Course.setPrerequisites once the course is added
+    // Returns false, changing nothing, if the course is unknown or the change would create a cycle
+    public boolean setPrerequisites(String courseId, String... prerequisiteIds) {
+        Offering offering = offerings.get(courseId);
+        if (offering == null || !prerequisites.setPrerequisites(courseId, prerequisiteIds)) {
+            return false;
+        }
+        offering.course.setPrerequisites(prerequisiteIds);
+        return true;
+    }
+    
+    // IDs of all direct and indirect prerequisites of a course, in ascending order
+    public List<String> getAllPrerequisites(String courseId) {
+        return prerequisites.getAllPrerequisites(courseId);
+    }
+    
+    // Record that a student has passed a course
+    public boolean recordCompletion(int studentId, String courseId) {
+        if (!offerings.containsKey(courseId)) {
+            return false;
+        }
+        int index = prerequisites.indexOf(courseId);
+        completedCourses.compute(studentId, (id, completed) -> PrerequisiteGraph.with(completed, index));
+        return true;
+    }
+    
+    public boolean hasCompleted(int studentId, String courseId) {
+        return offerings.containsKey(courseId)
+            && PrerequisiteGraph.contains(completedCourses.get(studentId), prerequisites.indexOf(courseId));
+    }
+    
+    // True if the student has completed every direct and indirect prerequisite of the course
+    public boolean meetsPrerequisites(int studentId, String courseId) {
+        long[] completed = completedCourses.get(studentId);
+        return prerequisites.isSatisfied(courseId, completed == null ? NONE_COMPLETED : completed);
+    }
+    
+    public Course getCourse(String courseId) {
+        Offering offering = offerings.get(courseId);
+        return offering == null ? null : offering.course;
+    }
+    
+    public List<Course> getCourses() {
+        List<Course> courses = new ArrayList<>();
+        for (Offering offering : offerings.values()) {
+            courses.add(offering.course);
+        }
+        courses.sort(Comparator.comparing(Course::getCourseId));
+        return courses;
+    }
+    
+    // Enroll a student, or put them on the waitlist if the course is full
+    public EnrollmentResult enroll(int studentId, String courseId) {
+        Offering offering = offerings.get(courseId);
+        if (offering == null) {
+            return EnrollmentResult.NO_SUCH_COURSE;
+        }
+        if (offering.enrolled.contains(studentId)) {
+            return EnrollmentResult.ALREADY_ENROLLED;
+        }
+        if (offering.waiting.containsKey(studentId)) {
+            return EnrollmentResult.ALREADY_WAITLISTED;
+        }
+        if (!meetsPrerequisites(studentId, courseId)) {
+            return EnrollmentResult.MISSING_PREREQUISITES;
+        }
+        
+        // Take a seat directly only while nobody is queued, so waitlisted students keep their turn
+        if (offering.queue.isEmpty() && offering.course.enrollStudent()) {
+            if (offering.enrolled.add(studentId)) {
+                link(studentId, courseId);
+                return EnrollmentResult.ENROLLED;
+            }
+            offering.course.dropStudent();
+            promote(offering);
+            return EnrollmentResult.ALREADY_ENROLLED;
+        }
+        
+        Waiting waiting = new Waiting(studentId);
+        if (offering.waiting.putIfAbsent(studentId, waiting) != null) {
+            return EnrollmentResult.ALREADY_WAITLISTED;
+        }
+        offering.queue.add(waiting);
+        // A seat may have been released while we were joining the queue
+        promote(offering);
+        return offering.enrolled.contains(studentId) ? EnrollmentResult.ENROLLED : EnrollmentResult.WAITLISTED;
+    }
+    
+    // Drop an enrolled student; the seat goes to the head of the waitlist
+    public boolean drop(int studentId, String courseId) {
+        Offering offering = offerings.get(courseId);
+        if (offering == null || !offering.enrolled.remove(studentId)) {
+            return false;
+        }
+        unlink(studentId, courseId);
+        offering.course.dropStudent();
+        promote(offering);
+        return true;
+    }
+    
+    // Take a student off a course's waitlist
+    public boolean leaveWaitlist(int studentId, String courseId) {
+        Offering offering = offerings.get(courseId);
+        return offering != null && offering.waiting.remove(studentId) != null;
+    }
+    
+    // Drop a student from every course and waitlist and forget their completions, e.g. when the record is deleted
+    public void removeStudent(int studentId) {
+        completedCourses.remove(studentId);
+        Set<String> courseIds = coursesByStudent.remove(studentId);
+        if (courseIds != null) {
+            for (String courseId : courseIds) {
+                Offering offering = offerings.get(courseId);
+                if (offering != null && offering.enrolled.remove(studentId)) {
+                    offering.course.dropStudent();
+                    promote(offering);
+                }
+            }
+        }
+        for (Offering offering : offerings.values()) {
+            offering.waiting.remove(studentId);
+        }
+    }
+    
+    public boolean isEnrolled(int studentId, String courseId) {
+        Offering offering = offerings.get(courseId);
+        return offering != null && offering.enrolled.contains(studentId);
+    }
+    
+    // IDs of the students enrolled in a course, in ascending order
+    public List<Integer> getEnrolledStudents(String courseId) {
+        Offering offering = offerings.get(courseId);
+        if (offering == null) {
+            return new ArrayList<>();
+        }
+        List<Integer> studentIds = new ArrayList<>(offering.enrolled);
+        Collections.sort(studentIds);
+        return studentIds;
+    }
+    
+    // IDs of the students waiting for a course, first in line first
+    public List<Integer> getWaitlist(String courseId) {
+        List<Integer> studentIds = new ArrayList<>();
+        Offering offering = offerings.get(courseId);
+        if (offering != null) {
+            for (Waiting waiting : offering.queue) {
+                if (offering.waiting.get(waiting.studentId) == waiting) {
+                    studentIds.add(waiting.studentId);
+                }
+            }
+        }
+        return studentIds;
+    }
+    
+    // IDs of the courses a student is enrolled in, in ascending order
+    public List<String> getCoursesForStudent(int studentId) {
+        Set<String> courseIds = coursesByStudent.get(studentId);
+        List<String> results = courseIds == null ? new ArrayList<>() : new ArrayList<>(courseIds);
+        Collections.sort(results);
+        return results;
+    }
+    
+    // Move waitlisted students in while seats are free; entries of students who left are skipped
+    private void promote(Offering offering) {
+        while (!offering.queue.isEmpty() && offering.course.enrollStudent()) {
+            Waiting next = offering.queue.poll();
+            while (next != null && !offering.waiting.remove(next.studentId, next)) {
+                next = offering.queue.poll();
+            }
+            if (next == null) {
+                // Someone may have joined the queue while the seat was held, and failed to take it
+                offering.course.dropStudent();
+                continue;
+            }
+            if (offering.enrolled.add(next.studentId)) {
+                link(next.studentId, offering.course.getCourseId());
+            } else {
+                offering.course.dropStudent();
+            }
+        }
+    }
+    
+    private void link(int studentId, String courseId) {
+        coursesByStudent.compute(studentId, (id, courseIds) -> {
+            Set<String> result = courseIds == null ? ConcurrentHashMap.newKeySet() : courseIds;
+            result.add(courseId);
+            return result;
+        });
+    }
+    
+    private void unlink(int studentId, String courseId) {
+        coursesByStudent.computeIfPresent(studentId, (id, courseIds) -> {
+            courseIds.remove(courseId);
+            return courseIds.isEmpty() ? null : courseIds;
+        });
+    }
+    
+    private static class Offering {
+        final Course course;
+        final Set<Integer> enrolled;                      // holds a seat in course's counter
+        final ConcurrentLinkedQueue<Waiting> queue;       // arrival order; may hold entries of students who left
+        final ConcurrentHashMap<Integer, Waiting> waiting;    // current waitlist entry of each waiting student
+        
+        Offering(Course course) {
+            this.course = course;
+            this.enrolled = ConcurrentHashMap.newKeySet();
+            this.queue = new ConcurrentLinkedQueue<>();
+            this.waiting = new ConcurrentHashMap<>();
+        }
+    }
+    
+    // One place in a waitlist; compared by identity so a student who leaves and rejoins goes to the back
+    private static class Waiting {
+        final int studentId;
+        
+        Waiting(int studentId) {
+            this.studentId = studentId;
+        }
+    }
+}
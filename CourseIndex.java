@@ -0,0 +1,48 @@
+import java.util.*;
+
+/**
+ * CourseIndex class implementing a sorted dictionary of course names with a posting list per course
+ * There are far fewer distinct courses than students, so prefix and substring lookups
+ * only walk the dictionary and then merge the matching posting lists
+ */
+public class CourseIndex {
+    private final TreeMap<String, PostingList> courses;    // lower-cased course name -> student IDs
+    
+    public CourseIndex() {
+        this.courses = new TreeMap<>();
+    }
+    
+    public void add(int studentId, String course) {
+        courses.computeIfAbsent(normalize(course), key -> new PostingList()).add(studentId);
+    }
+    
+    public void remove(int studentId, String course) {
+        String key = normalize(course);
+        PostingList list = courses.get(key);
+        if (list != null && list.remove(studentId) && list.isEmpty()) {
+            courses.remove(key);
+        }
+    }
+    
+    // Sorted IDs of students whose course name starts with the given text
+    public int[] findByPrefix(String prefix) {
+        String key = normalize(prefix);
+        return PostingList.union(courses.subMap(key, true, key + Character.MAX_VALUE, true).values());
+    }
+    
+    // Sorted IDs of students whose course name contains the given text
+    public int[] findContaining(String text) {
+        String key = normalize(text);
+        List<PostingList> matches = new ArrayList<>();
+        for (Map.Entry<String, PostingList> entry : courses.entrySet()) {
+            if (entry.getKey().contains(key)) {
+                matches.add(entry.getValue());
+            }
+        }
+        return PostingList.union(matches);
+    }
+    
+    private static String normalize(String course) {
+        return course.toLowerCase(Locale.ROOT);
+    }
+}
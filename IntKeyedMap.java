@@ -0,0 +1,36 @@
+import java.util.AbstractMap;
+
+/**
+ * IntKeyedMap class for maps keyed by int that also offer primitive accessors
+ * The boxed Map methods delegate to the primitive ones, so callers holding an int never box it.
+ * Null values are not allowed
+ */
+public abstract class IntKeyedMap<V> extends AbstractMap<Integer, V> {
+    public abstract V get(int key);
+    public abstract V put(int key, V value);
+    public abstract V remove(int key);
+    
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+    
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+    }
+    
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey(((Integer) key).intValue());
+    }
+    
+    @Override
+    public V put(Integer key, V value) {
+        return put(key.intValue(), value);
+    }
+    
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer ? remove(((Integer) key).intValue()) : null;
+    }
+}
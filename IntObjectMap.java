@@ -0,0 +1,223 @@
+import java.util.*;
+
+/**
+ * IntObjectMap class, an open-addressing hash map from int keys to objects
+ * Keys and values live in two flat arrays, so an entry costs 4 bytes plus a reference instead of
+ * a boxed Integer and a HashMap node. A key's home slot is the key itself masked to the table
+ * size, which places the sequential student IDs in consecutive slots with no collisions.
+ * Collisions are resolved with Robin Hood linear probing, which keeps lookups of absent keys
+ * short even inside a long run of occupied slots. Iterators are not fail-fast
+ */
+public class IntObjectMap<V> extends IntKeyedMap<V> {
+    private static final int MIN_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    
+    private int[] keys;
+    private Object[] values;    // null marks an empty slot
+    private int mask;
+    private int size;
+    private int threshold;
+    
+    public IntObjectMap() {
+        this(MIN_CAPACITY);
+    }
+    
+    // Size the table to hold the expected number of entries without resizing
+    public IntObjectMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = find(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+    
+    @Override
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "value");
+        int slot = find(key);
+        if (slot >= 0) {
+            V previous = (V) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        if (size >= threshold) {
+            allocate(values.length << 1);
+        }
+        insert(key, value);
+        size++;
+        return null;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V previous = (V) values[slot];
+        // Shift the rest of the run back one slot until an entry is already at its home slot
+        int next = (slot + 1) & mask;
+        while (values[next] != null && distance(next, keys[next]) > 0) {
+            keys[slot] = keys[next];
+            values[slot] = values[next];
+            slot = next;
+            next = (next + 1) & mask;
+        }
+        values[slot] = null;
+        size--;
+        return previous;
+    }
+    
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+    
+    // Walks the value array directly, without creating entry objects
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new SlotIterator<V>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    V at(int slot) {
+                        return (V) values[slot];
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+    
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        return new AbstractSet<Entry<Integer, V>>() {
+            @Override
+            public Iterator<Entry<Integer, V>> iterator() {
+                return new SlotIterator<Entry<Integer, V>>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    Entry<Integer, V> at(int slot) {
+                        return new SimpleImmutableEntry<>(keys[slot], (V) values[slot]);
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+    
+    // Slot holding the key, or -1; the probe stops early once it passes entries closer to their home
+    private int find(int key) {
+        int slot = key & mask;
+        for (int probes = 0; values[slot] != null; probes++) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            if (distance(slot, keys[slot]) < probes) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+    
+    // Robin Hood insertion: an entry further from its home slot takes the place of one that is closer
+    private void insert(int key, Object value) {
+        int slot = key & mask;
+        int probes = 0;
+        while (values[slot] != null) {
+            int residentProbes = distance(slot, keys[slot]);
+            if (residentProbes < probes) {
+                int residentKey = keys[slot];
+                Object residentValue = values[slot];
+                keys[slot] = key;
+                values[slot] = value;
+                key = residentKey;
+                value = residentValue;
+                probes = residentProbes;
+            }
+            slot = (slot + 1) & mask;
+            probes++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+    
+    private int distance(int slot, int key) {
+        return (slot - key) & mask;
+    }
+    
+    private void allocate(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+        if (oldValues != null) {
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    insert(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+    }
+    
+    private abstract class SlotIterator<T> implements Iterator<T> {
+        private int slot = nextOccupied(0);
+        
+        abstract T at(int slot);
+        
+        @Override
+        public boolean hasNext() {
+            return slot < values.length;
+        }
+        
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T result = at(slot);
+            slot = nextOccupied(slot + 1);
+            return result;
+        }
+        
+        private int nextOccupied(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+    }
+}
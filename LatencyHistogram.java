@@ -0,0 +1,111 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram class counting durations in log-linear buckets, in the manner of HdrHistogram
+ * Durations below 64 ns get a bucket each; above that every power of two is split into 32 buckets,
+ * so a reported percentile is within about 3% of the true value. Durations beyond about 18 minutes
+ * are counted in the last bucket. Recording is lock-free and allocation-free, and may be done from
+ * any thread; a snapshot taken during recording may be off by the records in flight
+ */
+public class LatencyHistogram {
+    private static final int PRECISION_BITS = 6;
+    private static final int HALF = 1 << (PRECISION_BITS - 1);           // buckets per power of two
+    private static final long MAX_VALUE = (1L << 40) - 1;                 // nanoseconds, about 18 minutes
+    private static final int BUCKETS = bucketOf(MAX_VALUE) + 1;
+    
+    private final AtomicLongArray counts;
+    private final LongAdder total;        // sum of recorded values, for the mean
+    private final AtomicLong max;
+    
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.total = new LongAdder();
+        this.max = new AtomicLong();
+    }
+    
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_VALUE));
+        counts.incrementAndGet(bucketOf(value));
+        total.add(value);
+        long seen = max.get();
+        while (value > seen && !max.compareAndSet(seen, value)) {
+            seen = max.get();
+        }
+    }
+    
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, total.sum(), max.get());
+    }
+    
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        max.set(0);
+    }
+    
+    // Values below 2^PRECISION_BITS map to themselves; above, shift off all but the top PRECISION_BITS bits
+    private static int bucketOf(long value) {
+        if (value < 2 * HALF) {
+            return (int) value;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(value) - PRECISION_BITS;
+        return shift * HALF + (int) (value >>> shift);
+    }
+    
+    // Largest value counted in a bucket
+    private static long highestIn(int bucket) {
+        if (bucket < 2 * HALF) {
+            return bucket;
+        }
+        int shift = bucket / HALF - 1;
+        long sub = bucket - (long) shift * HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+    
+    public static class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long total;
+        private final long max;
+        
+        Snapshot(long[] counts, long count, long total, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.total = total;
+            this.max = max;
+        }
+        
+        public long getCount() { return count; }
+        public long getMax() { return max; }
+        
+        public double getMean() {
+            return count == 0 ? 0.0 : (double) total / count;
+        }
+        
+        // Upper bound of the bucket holding the value at this fraction (0.0 - 1.0), capped at the max seen
+        public long getPercentile(double fraction) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(fraction * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestIn(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * MappedStudentMap class presenting a MappedStudentStore snapshot plus later changes as a Map
+ * A student is decoded from the mapping the first time it is read and kept from then on,
+ * so that callers always get the same Student object for an ID and can update it in place
+ */
+public class MappedStudentMap extends IntKeyedMap<Student> {
+    private final MappedStudentStore store;
+    private final IntObjectMap<Student> loaded;     // snapshot students decoded (or replaced) so far
+    private final Set<Integer> removed;             // snapshot students that have since been deleted
+    private final IntObjectMap<Student> added;      // students that are not part of the snapshot
+    private int size;
+    
+    public MappedStudentMap(MappedStudentStore store) {
+        this.store = store;
+        this.loaded = new IntObjectMap<>();
+        this.removed = new HashSet<>();
+        this.added = new IntObjectMap<>();
+        this.size = store.size();
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public boolean containsKey(int studentId) {
+        return added.containsKey(studentId) || loaded.containsKey(studentId)
+            || (!removed.contains(studentId) && store.contains(studentId));
+    }
+    
+    @Override
+    public Student get(int studentId) {
+        Student student = added.get(studentId);
+        if (student == null) {
+            student = loaded.get(studentId);
+        }
+        if (student == null && !removed.contains(studentId)) {
+            student = decode(studentId);
+            if (student != null) {
+                loaded.put(studentId, student);
+            }
+        }
+        return student;
+    }
+    
+    @Override
+    public Student put(int studentId, Student student) {
+        Student previous = get(studentId);
+        if (previous == null) {
+            size++;
+        }
+        if (store.contains(studentId)) {
+            loaded.put(studentId, student);
+            removed.remove(studentId);
+        } else {
+            added.put(studentId, student);
+        }
+        return previous;
+    }
+    
+    @Override
+    public Student remove(int studentId) {
+        Student previous = get(studentId);
+        if (previous != null) {
+            if (store.contains(studentId)) {
+                loaded.remove(studentId);
+                removed.add(studentId);
+            } else {
+                added.remove(studentId);
+            }
+            size--;
+        }
+        return previous;
+    }
+    
+    @Override
+    public Set<Entry<Integer, Student>> entrySet() {
+        return new AbstractSet<Entry<Integer, Student>>() {
+            @Override
+            public Iterator<Entry<Integer, Student>> iterator() {
+                return new EntryIterator();
+            }
+            
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+    
+    // Visit every student's email and ID; snapshot students not read yet are neither decoded nor kept
+    public void forEachEmail(ObjIntConsumer<String> action) {
+        for (int i = 0; i < store.size(); i++) {
+            int studentId = store.idAt(i);
+            if (removed.contains(studentId)) {
+                continue;
+            }
+            Student student = loaded.get(studentId);
+            try {
+                action.accept(student != null ? student.getEmail() : store.emailAt(i), studentId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        for (Student student : added.values()) {
+            action.accept(student.getEmail(), student.getStudentId());
+        }
+    }
+    
+    private Student decode(int studentId) {
+        try {
+            return store.get(studentId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // Walks the snapshot in ID order, then the students added since it was taken
+    private class EntryIterator implements Iterator<Entry<Integer, Student>> {
+        private int position;
+        private Iterator<Student> addedIterator;
+        private Student next;
+        
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            while (position < store.size()) {
+                int studentId = store.idAt(position++);
+                if (!removed.contains(studentId)) {
+                    next = get(studentId);
+                    return true;
+                }
+            }
+            if (addedIterator == null) {
+                addedIterator = added.values().iterator();
+            }
+            if (addedIterator.hasNext()) {
+                next = addedIterator.next();
+                return true;
+            }
+            return false;
+        }
+        
+        @Override
+        public Entry<Integer, Student> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Student student = next;
+            next = null;
+            return new SimpleImmutableEntry<>(student.getStudentId(), student);
+        }
+    }
+}
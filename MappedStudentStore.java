@@ -0,0 +1,171 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * MappedStudentStore class giving read-only access to a students.dat snapshot through a memory mapping
+ * Records are located through the ID-sorted index at the end of the file and decoded only when asked for,
+ * so opening a store costs the same regardless of how many students the file holds.
+ * Windows will not replace a file while it is mapped, and Java only unmaps a buffer once it is garbage
+ * collected, so there the file is read into the heap instead: records are still decoded lazily, but
+ * compaction can move the new snapshot over the old one
+ */
+public class MappedStudentStore {
+    private static final boolean MAP_FILES = !System.getProperty("os.name", "").startsWith("Windows");
+    
+    private final ByteBuffer buffer;
+    private final int nextStudentId;
+    private final int recordCount;
+    private final int indexStart;      // position of the first index entry, or -1 when the index is on the heap
+    private int[] heapIds;             // index rebuilt by scanning a version 1 file, which has no index
+    private int[] heapOffsets;
+    
+    private MappedStudentStore(ByteBuffer buffer, int nextStudentId, int recordCount, int indexStart) {
+        this.buffer = buffer;
+        this.nextStudentId = nextStudentId;
+        this.recordCount = recordCount;
+        this.indexStart = indexStart;
+    }
+    
+    // Map a snapshot file; files too large for a single mapping are not supported and must be loaded eagerly
+    public static MappedStudentStore open(File file) throws IOException {
+        if (file.length() > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot too large to map: " + file.length() + " bytes");
+        }
+        
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (MAP_FILES) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } else {
+                buffer = ByteBuffer.allocate((int) channel.size());
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // keep reading until the whole file is in
+                }
+                buffer.flip();
+            }
+        }
+        if (buffer.limit() < StudentCodec.HEADER_SIZE || buffer.getInt(0) != StudentCodec.MAGIC) {
+            throw new IOException("Not a student data file");
+        }
+        int version = buffer.get(4);
+        if (version < 1 || version > StudentCodec.VERSION) {
+            throw new IOException("Unsupported student data format version: " + version);
+        }
+        int nextStudentId = buffer.getInt(5);
+        int recordCount = buffer.getInt(9);
+        if (recordCount < 0 || recordCount > buffer.limit()) {
+            throw new IOException("Corrupt student record count: " + recordCount);
+        }
+        
+        if (version >= 2) {
+            int trailer = buffer.limit() - StudentCodec.TRAILER_SIZE;
+            if (trailer < StudentCodec.HEADER_SIZE || buffer.getInt(trailer + 8) != StudentCodec.INDEX_MAGIC) {
+                throw new IOException("Student data file has no index");
+            }
+            long indexOffset = buffer.getLong(trailer);
+            if (indexOffset < StudentCodec.HEADER_SIZE
+                || indexOffset + 4 + (long) recordCount * StudentCodec.INDEX_ENTRY_SIZE > trailer) {
+                throw new IOException("Corrupt student data index offset: " + indexOffset);
+            }
+            if (buffer.getInt((int) indexOffset) != recordCount) {
+                throw new IOException("Student data index does not match record count");
+            }
+            MappedStudentStore store = new MappedStudentStore(buffer, nextStudentId, recordCount, (int) indexOffset + 4);
+            store.checkIndexOrder();
+            return store;
+        }
+        
+        MappedStudentStore store = new MappedStudentStore(buffer, nextStudentId, recordCount, -1);
+        store.buildHeapIndex();
+        return store;
+    }
+    
+    public int getNextStudentId() { return nextStudentId; }
+    public int size() { return recordCount; }
+    
+    // Student ID of the i-th record in ID order
+    public int idAt(int i) {
+        return indexStart >= 0 ? buffer.getInt(indexStart + i * StudentCodec.INDEX_ENTRY_SIZE) : heapIds[i];
+    }
+    
+    public boolean contains(int studentId) {
+        return indexOf(studentId) >= 0;
+    }
+    
+    // Decode the student with the given ID, or return null if the snapshot does not contain it
+    public Student get(int studentId) throws IOException {
+        int i = indexOf(studentId);
+        return i < 0 ? null : getAt(i);
+    }
+    
+    // Decode the i-th record in ID order
+    public Student getAt(int i) throws IOException {
+        Student student = StudentCodec.decode(buffer, offsetAt(i));
+        if (student.getStudentId() != idAt(i)) {
+            throw new IOException("Student data index does not match record " + student.getStudentId());
+        }
+        return student;
+    }
+    
+    // Email of the i-th record in ID order, read without decoding the rest of the record
+    public String emailAt(int i) throws IOException {
+        return StudentCodec.readEmail(buffer, offsetAt(i));
+    }
+    
+    private int offsetAt(int i) {
+        return indexStart >= 0
+            ? (int) buffer.getLong(indexStart + i * StudentCodec.INDEX_ENTRY_SIZE + 4)
+            : heapOffsets[i];
+    }
+    
+    // Binary search over the ID-sorted index
+    private int indexOf(int studentId) {
+        int low = 0;
+        int high = recordCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = idAt(mid);
+            if (id < studentId) {
+                low = mid + 1;
+            } else if (id > studentId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+    
+    // Lookups binary-search the index, so its IDs must be strictly ascending
+    private void checkIndexOrder() throws IOException {
+        for (int i = 1; i < recordCount; i++) {
+            if (idAt(i) <= idAt(i - 1)) {
+                throw new IOException("Student data index is out of order at entry " + i);
+            }
+        }
+    }
+    
+    // Version 1 files carry no index, so walk the record headers once without decoding them
+    private void buildHeapIndex() throws IOException {
+        long[] order = new long[recordCount];
+        int[] offsets = new int[recordCount];
+        int[] studentId = new int[1];
+        long position = StudentCodec.HEADER_SIZE;
+        for (int i = 0; i < recordCount; i++) {
+            offsets[i] = (int) position;
+            position = StudentCodec.scanRecord(buffer, (int) position, studentId);
+            order[i] = ((long) studentId[0] << 32) | i;
+        }
+        Arrays.sort(order);
+        
+        heapIds = new int[recordCount];
+        heapOffsets = new int[recordCount];
+        for (int i = 0; i < recordCount; i++) {
+            heapIds[i] = (int) (order[i] >>> 32);
+            heapOffsets[i] = offsets[(int) order[i]];
+        }
+    }
+}
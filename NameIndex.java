@@ -0,0 +1,169 @@
+import java.util.*;
+
+/**
+ * NameIndex class implementing a trigram inverted index over student full names
+ * Substring queries intersect the posting lists of the query's trigrams, verify the few
+ * remaining candidates against the stored lower-cased name and rank them by match quality.
+ * Broad queries matching more than SORTED_MATCHES names are only grouped by match quality and
+ * not sorted by name within each group, since sorting that many names costs more than a scan
+ */
+public class NameIndex {
+    private static final int RANK_EXACT = 0;
+    private static final int RANK_NAME_PREFIX = 1;
+    private static final int RANK_WORD_PREFIX = 2;
+    private static final int RANK_SUBSTRING = 3;
+    private static final int SORTED_MATCHES = 5000;
+    
+    private final IntObjectMap<String> names;         // student ID -> lower-cased full name
+    private final Map<Long, PostingList> postings;    // packed trigram -> sorted student IDs
+    
+    public NameIndex() {
+        this.names = new IntObjectMap<>();
+        this.postings = new HashMap<>();
+    }
+    
+    public void add(int studentId, String fullName) {
+        String name = normalize(fullName);
+        if (names.put(studentId, name) != null) {
+            throw new IllegalStateException("Student already indexed: " + studentId);
+        }
+        for (long trigram : trigrams(name)) {
+            postings.computeIfAbsent(trigram, key -> new PostingList()).add(studentId);
+        }
+    }
+    
+    public void remove(int studentId) {
+        String name = names.remove(studentId);
+        if (name == null) {
+            return;
+        }
+        for (long trigram : trigrams(name)) {
+            PostingList list = postings.get(trigram);
+            if (list != null && list.remove(studentId) && list.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+    
+    // IDs of students whose full name contains the query, best matches first
+    public List<Integer> search(String query) {
+        String needle = normalize(query);
+        List<Match> matches = new ArrayList<>();
+        
+        if (needle.length() < 3) {
+            // Too short to have a trigram; scan the pre-normalized names instead
+            for (Map.Entry<Integer, String> entry : names.entrySet()) {
+                addIfMatches(matches, entry.getKey(), entry.getValue(), needle);
+            }
+        } else {
+            for (int studentId : candidates(needle)) {
+                addIfMatches(matches, studentId, names.get(studentId), needle);
+            }
+        }
+        
+        List<Integer> results = new ArrayList<>(matches.size());
+        if (matches.size() <= SORTED_MATCHES) {
+            matches.sort(null);
+            for (Match match : matches) {
+                results.add(match.studentId);
+            }
+            return results;
+        }
+        for (int rank = RANK_EXACT; rank <= RANK_SUBSTRING; rank++) {
+            for (Match match : matches) {
+                if (match.rank == rank) {
+                    results.add(match.studentId);
+                }
+            }
+        }
+        return results;
+    }
+    
+    // Sorted IDs of every student whose name has all the query's trigrams, unranked; a superset
+    // of the matches that callers must still check, or null if the query is too short to narrow
+    public int[] findCandidates(String query) {
+        String needle = normalize(query);
+        return needle.length() < 3 ? null : candidates(needle);
+    }
+    
+    // Intersect the posting lists of every trigram in the query, smallest list first
+    private int[] candidates(String needle) {
+        List<PostingList> lists = new ArrayList<>();
+        for (long trigram : trigrams(needle)) {
+            PostingList list = postings.get(trigram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        
+        int[] result = lists.get(0).toArray();
+        for (int l = 1; l < lists.size() && result.length > 0; l++) {
+            result = lists.get(l).intersect(result);
+        }
+        return result;
+    }
+    
+    private static void addIfMatches(List<Match> matches, int studentId, String name, String needle) {
+        int position = name.indexOf(needle);
+        if (position < 0) {
+            return;
+        }
+        int rank;
+        if (name.length() == needle.length()) {
+            rank = RANK_EXACT;
+        } else if (position == 0) {
+            rank = RANK_NAME_PREFIX;
+        } else if (name.charAt(position - 1) == ' ') {
+            rank = RANK_WORD_PREFIX;
+        } else {
+            rank = RANK_SUBSTRING;
+        }
+        matches.add(new Match(studentId, name, rank));
+    }
+    
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+    
+    // Distinct trigrams of a string, each packed into a long (three 16-bit chars)
+    private static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] result = new long[text.length() - 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        Arrays.sort(result);
+        int distinct = 0;
+        for (int i = 0; i < result.length; i++) {
+            if (i == 0 || result[i] != result[i - 1]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+    
+    private static class Match implements Comparable<Match> {
+        final int studentId;
+        final String name;
+        final int rank;
+        
+        Match(int studentId, String name, int rank) {
+            this.studentId = studentId;
+            this.name = name;
+            this.rank = rank;
+        }
+        
+        @Override
+        public int compareTo(Match other) {
+            if (rank != other.rank) {
+                return Integer.compare(rank, other.rank);
+            }
+            int byName = name.compareTo(other.name);
+            return byName != 0 ? byName : Integer.compare(studentId, other.studentId);
+        }
+    }
+}
\ No newline at end of file
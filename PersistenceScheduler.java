@@ -0,0 +1,272 @@
+import java.io.*;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * PersistenceScheduler class taking journal writes off the caller's thread
+ * Mutations are framed into an in-memory buffer and the database is marked dirty; a background
+ * flusher writes and fsyncs everything pending as one batch, either once FLUSH_RECORDS records
+ * are waiting or FLUSH_MILLIS after the first of them. flush() returns a future for callers that
+ * need durability, and close() (or the JVM shutdown hook, e.g. on System.exit) drains the buffer.
+ * Each batch's bytes, write-and-sync time and fsync time are recorded in the given StudentMetrics.
+ * A failed write or sync may leave a torn record at the end of the log, and replay drops everything
+ * after one, so the failure is latched: nothing more is written and every flush() fails until
+ * reset() empties the log after compaction has saved the changes in a snapshot
+ */
+public class PersistenceScheduler implements Closeable {
+    private static final int FLUSH_RECORDS = 256;    // wake the flusher once this many records are pending
+    private static final long FLUSH_MILLIS = 200;    // ... or this long after the first pending record
+    
+    private final StudentJournal journal;    // only touched while holding its monitor
+    private final StudentMetrics metrics;
+    private final Object lock;               // guards everything below
+    private ByteArrayOutputStream pending;
+    private ByteArrayOutputStream spare;
+    private int pendingRecords;
+    private long firstPendingTime;
+    private int logRecords;                  // records in the log plus those still pending
+    private long appended;                   // sequence number of the last buffered record
+    private long durable;                    // sequence number of the last record known to be on disk
+    private final Deque<Barrier> barriers;
+    private boolean flushRequested;
+    private IOException failure;             // latched write or sync failure, cleared by reset()
+    private boolean closed;
+    private final Thread flusher;
+    private final Thread shutdownHook;
+    
+    public PersistenceScheduler(StudentJournal journal) {
+        this(journal, StudentMetrics.DISABLED);
+    }
+    
+    public PersistenceScheduler(StudentJournal journal, StudentMetrics metrics) {
+        this.journal = journal;
+        this.metrics = metrics;
+        this.lock = new Object();
+        this.pending = new ByteArrayOutputStream(64 * 1024);
+        this.spare = new ByteArrayOutputStream(64 * 1024);
+        this.logRecords = journal.getRecordCount();
+        this.barriers = new ArrayDeque<>();
+        
+        this.flusher = new Thread(this::runFlusher, "student-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        this.shutdownHook = new Thread(this::close, "student-journal-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+    
+    // Buffer the current state of a student; the flusher writes it in the next batch
+    public void appendPut(Student student) throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            StudentJournal.encodePut(pending, student);
+            buffered();
+        }
+    }
+    
+    // Buffer the removal of a student
+    public void appendDelete(int studentId) throws IOException {
+        synchronized (lock) {
+            ensureOpen();
+            StudentJournal.encodeDelete(pending, studentId);
+            buffered();
+        }
+    }
+    
+    // Completes once every record buffered so far is on disk; fails if writing them failed
+    public CompletableFuture<Void> flush() {
+        synchronized (lock) {
+            if (failure != null) {
+                return CompletableFuture.failedFuture(failure);
+            }
+            if (durable == appended) {
+                return CompletableFuture.completedFuture(null);
+            }
+            Barrier barrier = new Barrier(appended);
+            barriers.add(barrier);
+            flushRequested = true;
+            lock.notifyAll();
+            return barrier.future;
+        }
+    }
+    
+    public boolean needsCompaction() {
+        synchronized (lock) {
+            return logRecords >= StudentJournal.COMPACTION_THRESHOLD;
+        }
+    }
+    
+    // Empty the log once a snapshot holding every buffered change has been written
+    public void reset() throws IOException {
+        synchronized (journal) {
+            synchronized (lock) {
+                pending.reset();
+                pendingRecords = 0;
+                logRecords = 0;
+            }
+            journal.reset();
+            synchronized (lock) {
+                failure = null;
+                markDurable(appended);
+            }
+        }
+    }
+    
+    // Drain the buffer, stop the flusher and release the log file
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // the JVM is already shutting down; the hook is running or will find us closed
+            }
+        }
+        
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (journal) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.out.println("Error closing journal: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Journal is closed");
+        }
+    }
+    
+    private void buffered() {
+        if (pendingRecords == 0) {
+            firstPendingTime = System.currentTimeMillis();
+        }
+        pendingRecords++;
+        logRecords++;
+        appended++;
+        if (pendingRecords == FLUSH_RECORDS) {
+            lock.notifyAll();
+        }
+    }
+    
+    private void runFlusher() {
+        while (true) {
+            synchronized (lock) {
+                if (!awaitBatch()) {
+                    return;
+                }
+            }
+            flushBatch();
+        }
+    }
+    
+    // Wait until a batch is due; returns false once closed with nothing left to write
+    private boolean awaitBatch() {
+        while (true) {
+            if (pendingRecords > 0 || flushRequested) {
+                long wait = firstPendingTime + FLUSH_MILLIS - System.currentTimeMillis();
+                if (closed || flushRequested || pendingRecords >= FLUSH_RECORDS || wait <= 0) {
+                    return true;
+                }
+                waitQuietly(wait);
+            } else if (closed) {
+                return false;
+            } else {
+                waitQuietly(0);
+            }
+        }
+    }
+    
+    private void waitQuietly(long millis) {
+        try {
+            lock.wait(millis);
+        } catch (InterruptedException e) {
+            // keep flushing; close() is the way to stop the flusher
+        }
+    }
+    
+    // Swap the buffers and write the full one; the journal monitor keeps reset() from interleaving
+    // Once a batch has failed, later ones are dropped unwritten: the snapshot taken before reset() holds them
+    private void flushBatch() {
+        synchronized (journal) {
+            ByteArrayOutputStream batch;
+            int records;
+            long sequence;
+            IOException error;
+            synchronized (lock) {
+                batch = pending;
+                records = pendingRecords;
+                sequence = appended;
+                pending = spare;
+                spare = batch;
+                pendingRecords = 0;
+                flushRequested = false;
+                error = failure;
+            }
+            
+            if (error == null) {
+                long start = metrics.start();
+                try {
+                    if (records > 0) {
+                        journal.write(batch, records);
+                        metrics.addJournalBytes(batch.size());
+                    }
+                    long syncStart = metrics.start();
+                    journal.sync();
+                    metrics.record(StudentMetrics.Operation.FSYNC, syncStart, true);
+                } catch (IOException e) {
+                    System.out.println("Error writing journal, no more changes will be logged until the next compaction: "
+                                       + e.getMessage());
+                    error = e;
+                }
+                metrics.record(StudentMetrics.Operation.JOURNAL_FLUSH, start, error == null);
+            }
+            batch.reset();
+            
+            synchronized (lock) {
+                if (error == null) {
+                    markDurable(sequence);
+                } else {
+                    failure = error;
+                    failBarriers(error);
+                }
+            }
+        }
+    }
+    
+    private void markDurable(long sequence) {
+        durable = Math.max(durable, sequence);
+        while (!barriers.isEmpty() && barriers.peek().sequence <= durable) {
+            barriers.poll().future.complete(null);
+        }
+    }
+    
+    // Nothing buffered can become durable before reset(), so every waiting barrier fails
+    private void failBarriers(IOException failure) {
+        while (!barriers.isEmpty()) {
+            barriers.poll().future.completeExceptionally(failure);
+        }
+    }
+    
+    private static class Barrier {
+        final long sequence;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        
+        Barrier(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
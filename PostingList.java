@@ -0,0 +1,113 @@
+import java.util.Arrays;
+
+/**
+ * PostingList class holding a sorted, growable array of student IDs for the secondary indexes
+ * New IDs are usually the largest ones seen so far, so adds are mostly appends
+ */
+public class PostingList {
+    private int[] ids = new int[4];
+    private int size;
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public int get(int i) {
+        return ids[i];
+    }
+    
+    public void add(int studentId) {
+        int position = size > 0 && ids[size - 1] < studentId ? size : Arrays.binarySearch(ids, 0, size, studentId);
+        if (position < 0) {
+            position = -position - 1;
+        } else if (position < size) {
+            return;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = studentId;
+        size++;
+    }
+    
+    public boolean remove(int studentId) {
+        int position = Arrays.binarySearch(ids, 0, size, studentId);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+        return true;
+    }
+    
+    public boolean contains(int studentId) {
+        return Arrays.binarySearch(ids, 0, size, studentId) >= 0;
+    }
+    
+    public int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+    
+    // Keep only the IDs of a sorted array that are also in this list
+    public int[] intersect(int[] sorted) {
+        int[] result = new int[Math.min(sorted.length, size)];
+        int count = 0;
+        int j = 0;
+        for (int i = 0; i < sorted.length && j < size; i++) {
+            while (j < size && ids[j] < sorted[i]) {
+                j++;
+            }
+            if (j < size && ids[j] == sorted[i]) {
+                result[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+    
+    // IDs present in both sorted arrays
+    public static int[] intersect(int[] first, int[] second) {
+        int[] result = new int[Math.min(first.length, second.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+    
+    // Sorted, duplicate-free union of several lists
+    public static int[] union(Iterable<PostingList> lists) {
+        int total = 0;
+        for (PostingList list : lists) {
+            total += list.size;
+        }
+        int[] result = new int[total];
+        int count = 0;
+        for (PostingList list : lists) {
+            System.arraycopy(list.ids, 0, result, count, list.size);
+            count += list.size;
+        }
+        Arrays.sort(result);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || result[i] != result[i - 1]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+}
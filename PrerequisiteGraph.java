@@ -0,0 +1,163 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PrerequisiteGraph class tracking which courses must be completed before others
+ * Every course ID gets a dense index, and each course keeps the transitive closure of its
+ * prerequisites as a bitset, so checking a student's completed courses costs a few word operations
+ * however long the chain. Closures are updated incrementally when prerequisites change, and a
+ * change that would make a course its own prerequisite is rejected. Course IDs may be referenced
+ * before their course is added. Checks are lock-free; changes are serialized
+ */
+public class PrerequisiteGraph {
+    private final ConcurrentHashMap<String, Node> nodes;
+    private volatile String[] courseIds;    // index -> course ID; published before the node is
+    private int size;                       // guarded by this
+    
+    public PrerequisiteGraph() {
+        this.nodes = new ConcurrentHashMap<>();
+        this.courseIds = new String[64];
+    }
+    
+    // Index of the course ID, registering it if needed
+    public int indexOf(String courseId) {
+        return node(courseId).index;
+    }
+    
+    // Replace a course's direct prerequisites; returns false, changing nothing, if that would create a cycle
+    public synchronized boolean setPrerequisites(String courseId, String[] prerequisiteIds) {
+        Node course = node(courseId);
+        Set<Node> direct = new LinkedHashSet<>();
+        for (String prerequisiteId : prerequisiteIds) {
+            Node prerequisite = node(prerequisiteId);
+            if (prerequisite == course || contains(prerequisite.closure, course.index)) {
+                return false;
+            }
+            direct.add(prerequisite);
+        }
+        
+        for (Node old : course.direct) {
+            old.dependents.remove(course);
+        }
+        course.direct = direct.toArray(new Node[0]);
+        for (Node prerequisite : course.direct) {
+            prerequisite.dependents.add(course);
+        }
+        
+        // Only the course and the courses that require it, directly or not, can have a new closure
+        Set<Node> affected = new HashSet<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.add(course);
+        while (!pending.isEmpty()) {
+            Node node = pending.poll();
+            if (affected.add(node)) {
+                pending.addAll(node.dependents);
+            }
+        }
+        Set<Node> done = new HashSet<>();
+        for (Node node : affected) {
+            recompute(node, affected, done);
+        }
+        return true;
+    }
+    
+    // True if every direct and indirect prerequisite of the course is set in completed
+    public boolean isSatisfied(String courseId, long[] completed) {
+        Node course = nodes.get(courseId);
+        if (course == null) {
+            return true;
+        }
+        long[] closure = course.closure;
+        for (int i = 0; i < closure.length; i++) {
+            long done = i < completed.length ? completed[i] : 0L;
+            if ((closure[i] & ~done) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // IDs of all direct and indirect prerequisites of the course, in ascending order
+    public List<String> getAllPrerequisites(String courseId) {
+        List<String> results = new ArrayList<>();
+        Node course = nodes.get(courseId);
+        if (course != null) {
+            long[] closure = course.closure;
+            String[] ids = courseIds;
+            for (int index = 0; index < closure.length * 64; index++) {
+                if (contains(closure, index)) {
+                    results.add(ids[index]);
+                }
+            }
+            Collections.sort(results);
+        }
+        return results;
+    }
+    
+    // Copy of the bitset with the index set; a null bitset is empty
+    public static long[] with(long[] bits, int index) {
+        int words = (index >>> 6) + 1;
+        long[] result = bits == null ? new long[words] : Arrays.copyOf(bits, Math.max(bits.length, words));
+        result[index >>> 6] |= 1L << index;
+        return result;
+    }
+    
+    public static boolean contains(long[] bits, int index) {
+        int word = index >>> 6;
+        return bits != null && word < bits.length && (bits[word] & (1L << index)) != 0;
+    }
+    
+    private Node node(String courseId) {
+        Node node = nodes.get(courseId);
+        if (node != null) {
+            return node;
+        }
+        synchronized (this) {
+            node = nodes.get(courseId);
+            if (node == null) {
+                String[] current = courseIds;
+                if (size == current.length) {
+                    current = Arrays.copyOf(current, size * 2);
+                }
+                current[size] = courseId;
+                courseIds = current;
+                node = new Node(size++);
+                nodes.put(courseId, node);
+            }
+            return node;
+        }
+    }
+    
+    // Rebuild a closure from the direct prerequisites, after rebuilding any of theirs that changed
+    private void recompute(Node node, Set<Node> affected, Set<Node> done) {
+        if (!done.add(node)) {
+            return;
+        }
+        long[] closure = new long[(size + 63) >>> 6];
+        for (Node prerequisite : node.direct) {
+            if (affected.contains(prerequisite)) {
+                recompute(prerequisite, affected, done);
+            }
+            closure[prerequisite.index >>> 6] |= 1L << prerequisite.index;
+            long[] inherited = prerequisite.closure;
+            for (int i = 0; i < inherited.length; i++) {
+                closure[i] |= inherited[i];
+            }
+        }
+        node.closure = closure;
+    }
+    
+    private static class Node {
+        final int index;
+        volatile long[] closure;        // every direct and indirect prerequisite; replaced, never modified
+        Node[] direct;                  // guarded by the graph
+        final Set<Node> dependents;     // courses listing this one directly; guarded by the graph
+        
+        Node(int index) {
+            this.index = index;
+            this.closure = new long[0];
+            this.direct = new Node[0];
+            this.dependents = new HashSet<>();
+        }
+    }
+}
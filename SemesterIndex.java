@@ -0,0 +1,30 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SemesterIndex class mapping each semester to the posting list of its students
+ */
+public class SemesterIndex {
+    private final Map<Integer, PostingList> semesters;
+    
+    public SemesterIndex() {
+        this.semesters = new HashMap<>();
+    }
+    
+    public void add(int studentId, int semester) {
+        semesters.computeIfAbsent(semester, key -> new PostingList()).add(studentId);
+    }
+    
+    public void remove(int studentId, int semester) {
+        PostingList list = semesters.get(semester);
+        if (list != null && list.remove(studentId) && list.isEmpty()) {
+            semesters.remove(semester);
+        }
+    }
+    
+    // Sorted IDs of the students in a semester
+    public int[] find(int semester) {
+        PostingList list = semesters.get(semester);
+        return list == null ? new int[0] : list.toArray();
+    }
+}
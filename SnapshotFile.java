@@ -0,0 +1,59 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * SnapshotFile class saving and loading the snapshot file the journal is folded into
+ * Shared by StudentDatabase and ConcurrentStudentDatabase, so both write, sync and read their
+ * students the same way. A new snapshot is written aside, forced to disk and then moved over the
+ * old one, so a crash leaves one complete file or the other
+ */
+final class SnapshotFile {
+    private SnapshotFile() {
+    }
+    
+    // Write the students as a new snapshot; false (after reporting why) if it could not be saved
+    // The collection must not change while it is written, since its size goes into the header
+    static boolean save(String dataFile, int nextStudentId, Collection<Student> students, StudentMetrics metrics) {
+        File tempFile = new File(dataFile + ".tmp");
+        try (StudentCodec.Encoder encoder = new StudentCodec.Encoder(
+                new FileOutputStream(tempFile), nextStudentId, students.size())) {
+            for (Student student : students) {
+                encoder.write(student);
+            }
+        } catch (IOException e) {
+            System.out.println("Error saving data: " + e.getMessage());
+            return false;
+        }
+        
+        try {
+            // The journal is truncated once this returns, so the snapshot must be on disk first
+            try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE)) {
+                long start = metrics.start();
+                channel.force(true);
+                metrics.record(StudentMetrics.Operation.FSYNC, start, true);
+                metrics.addSnapshotBytes(channel.size());
+            }
+            Files.move(tempFile.toPath(), new File(dataFile).toPath(),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error saving data: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    // Decode every student of a snapshot file in order; returns the next student ID it records
+    static int load(File file, Consumer<Student> onStudent) throws IOException {
+        try (StudentCodec.Decoder decoder = new StudentCodec.Decoder(new FileInputStream(file))) {
+            while (decoder.hasNext()) {
+                onStudent.accept(decoder.next());
+            }
+            return decoder.getNextStudentId();
+        }
+    }
+}
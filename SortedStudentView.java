@@ -0,0 +1,174 @@
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * SortedStudentView class keeping students ordered by a precomputed sort key
+ * The key is captured when a student is added, so a student must be removed from the view
+ * before any field that feeds its key changes and added back afterwards. Pages can be read by
+ * offset or after a keyset cursor naming the last key already seen; a cursor stays valid while
+ * other students are added and removed
+ */
+public class SortedStudentView<K extends Comparable<K>> {
+    private final TreeMap<K, Student> ordered;
+    private final Function<Student, K> keyOf;
+    private final Function<K, String> cursorOf;      // key -> cursor text
+    private final Function<String, K> keyOfCursor;   // cursor text -> key; throws IllegalArgumentException
+    
+    private SortedStudentView(Function<Student, K> keyOf, Function<K, String> cursorOf, Function<String, K> keyOfCursor) {
+        this.ordered = new TreeMap<>();
+        this.keyOf = keyOf;
+        this.cursorOf = cursorOf;
+        this.keyOfCursor = keyOfCursor;
+    }
+    
+    // Ordered by lower-cased full name, then ID
+    public static SortedStudentView<NameKey> byName() {
+        return new SortedStudentView<>(NameKey::new,
+            key -> key.studentId + ":" + key.name,
+            cursor -> new NameKey(cursorId(cursor), cursorRest(cursor)));
+    }
+    
+    // Ordered by GPA, highest first, then ID
+    public static SortedStudentView<GpaKey> byGpa() {
+        return new SortedStudentView<>(GpaKey::new,
+            key -> key.studentId + ":" + key.gpa,
+            cursor -> new GpaKey(cursorId(cursor), parseGpa(cursorRest(cursor))));
+    }
+    
+    // Ordered by ID
+    public static SortedStudentView<Integer> byId() {
+        return new SortedStudentView<>(Student::getStudentId,
+            key -> Integer.toString(key),
+            SortedStudentView::parseId);
+    }
+    
+    public void add(Student student) {
+        ordered.put(keyOf.apply(student), student);
+    }
+    
+    public void remove(Student student) {
+        ordered.remove(keyOf.apply(student));
+    }
+    
+    // Whole view as a list, in order
+    public List<Student> toList() {
+        return new ArrayList<>(ordered.values());
+    }
+    
+    // One page of the view; only the skipped and returned entries are walked
+    public List<Student> page(int offset, int limit) {
+        List<Student> results = new ArrayList<>(Math.min(limit, Math.max(0, ordered.size() - offset)));
+        Iterator<Student> it = ordered.values().iterator();
+        for (int i = 0; i < offset && it.hasNext(); i++) {
+            it.next();
+        }
+        while (results.size() < limit && it.hasNext()) {
+            results.add(it.next());
+        }
+        return results;
+    }
+    
+    // Up to limit students after the cursor (null for the first page), with the cursor of the next page
+    public StudentPage pageAfter(String cursor, int limit) {
+        SortedMap<K, Student> rest = cursor == null ? ordered : ordered.tailMap(keyOfCursor.apply(cursor), false);
+        List<Student> results = new ArrayList<>(Math.min(limit, 1024));    // a tail view's size() walks it
+        K last = null;
+        for (Map.Entry<K, Student> entry : rest.entrySet()) {
+            if (results.size() == limit) {
+                return new StudentPage(results, cursorOf.apply(last));
+            }
+            results.add(entry.getValue());
+            last = entry.getKey();
+        }
+        return new StudentPage(results, null);
+    }
+    
+    // The same page taken from students that are not in the view, such as an unindexed store: every
+    // student is visited but only the first limit + 1 after the cursor are kept in order
+    public StudentPage pageAfter(Iterable<Student> students, String cursor, int limit) {
+        K after = cursor == null ? null : keyOfCursor.apply(cursor);
+        TreeMap<K, Student> first = new TreeMap<>();
+        for (Student student : students) {
+            K key = keyOf.apply(student);
+            if (after != null && key.compareTo(after) <= 0) {
+                continue;
+            }
+            if (first.size() <= limit) {
+                first.put(key, student);
+            } else if (key.compareTo(first.lastKey()) < 0) {
+                first.pollLastEntry();
+                first.put(key, student);
+            }
+        }
+        if (first.size() <= limit) {
+            return new StudentPage(new ArrayList<>(first.values()), null);
+        }
+        first.pollLastEntry();
+        return new StudentPage(new ArrayList<>(first.values()), cursorOf.apply(first.lastKey()));
+    }
+    
+    // Cursors are "<id>:<rest of key>", or just the ID for the ID order
+    private static int cursorId(String cursor) {
+        return parseId(cursor.substring(0, Math.max(cursor.indexOf(':'), 0)));
+    }
+    
+    private static int parseId(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+    
+    private static String cursorRest(String cursor) {
+        return cursor.substring(cursor.indexOf(':') + 1);
+    }
+    
+    private static double parseGpa(String text) {
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+    
+    public static class NameKey implements Comparable<NameKey> {
+        private final String name;
+        private final int studentId;
+        
+        NameKey(Student student) {
+            this(student.getStudentId(), student.getFullName().toLowerCase(Locale.ROOT));
+        }
+        
+        NameKey(int studentId, String name) {
+            this.name = name;
+            this.studentId = studentId;
+        }
+        
+        @Override
+        public int compareTo(NameKey other) {
+            int byName = name.compareTo(other.name);
+            return byName != 0 ? byName : Integer.compare(studentId, other.studentId);
+        }
+    }
+    
+    public static class GpaKey implements Comparable<GpaKey> {
+        private final double gpa;
+        private final int studentId;
+        
+        GpaKey(Student student) {
+            this(student.getStudentId(), student.getGpa());
+        }
+        
+        GpaKey(int studentId, double gpa) {
+            this.gpa = gpa;
+            this.studentId = studentId;
+        }
+        
+        @Override
+        public int compareTo(GpaKey other) {
+            int byGpa = Double.compare(other.gpa, gpa);    // Descending order
+            return byGpa != 0 ? byGpa : Integer.compare(studentId, other.studentId);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * StringDictionary class assigning small int codes to frequently repeated strings
+ * Each distinct value is kept once, so students sharing a course or subject share one String
+ * and can be compared by code. Code 0 stands for null. Codes are never reused and the shared
+ * dictionary only grows, which suits the small vocabulary of course and subject names.
+ * Safe for use from many threads
+ */
+public class StringDictionary {
+    public static final StringDictionary SHARED = new StringDictionary();    // used by every Student
+    
+    private final ConcurrentHashMap<String, Integer> codes;
+    private volatile String[] values;    // code -> value; published before the code is
+    private int size;                    // guarded by this
+    
+    public StringDictionary() {
+        this.codes = new ConcurrentHashMap<>();
+        this.values = new String[64];
+        this.size = 1;    // code 0 is null
+    }
+    
+    // Code for the value, adding it to the dictionary if needed
+    public int encode(String value) {
+        if (value == null) {
+            return 0;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(value);
+            if (code == null) {
+                String[] current = values;
+                if (size == current.length) {
+                    current = Arrays.copyOf(current, size * 2);
+                }
+                current[size] = value;
+                values = current;
+                code = size++;
+                codes.put(value, code);
+            }
+            return code;
+        }
+    }
+    
+    // Code for the value, or -1 if it has never been encoded
+    public int find(String value) {
+        if (value == null) {
+            return 0;
+        }
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+    
+    public String decode(int code) {
+        return values[code];
+    }
+    
+    // The canonical instance of an equal string
+    public String intern(String value) {
+        return decode(encode(value));
+    }
+    
+    // Flags, indexed by code, the values that contain the text (case-insensitive)
+    // Codes handed out after the call starts are left out, so callers that may see them check the length
+    public boolean[] findContaining(String text) {
+        String search = text.toLowerCase(Locale.ROOT);
+        String[] current;
+        int count;
+        synchronized (this) {    // an array at least as long as size, with every code below it filled in
+            current = values;
+            count = size;
+        }
+        boolean[] matches = new boolean[count];
+        for (int code = 1; code < matches.length; code++) {
+            matches[code] = current[code].toLowerCase(Locale.ROOT).contains(search);
+        }
+        return matches;
+    }
+    
+    // Number of codes handed out so far, including the one for null
+    public int size() {
+        synchronized (this) {
+            return size;
+        }
+    }
+}
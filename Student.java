@@ -1,12 +1,18 @@
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Student class representing a student record with all necessary details
+ * The course and subjects are held as StringDictionary codes, so students share one copy of each
+ * name and lookups can compare codes instead of strings
  */
 public class Student {
+    private static final int[] NO_SUBJECTS = new int[0];
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    
     private int studentId;
     private String firstName;
     private String lastName;
@@ -14,11 +20,12 @@ public class Student {
     private String phoneNumber;
     private LocalDate dateOfBirth;
     private String address;
-    private String course;
+    private int courseCode;
     private int semester;
     private double gpa;
-    private List<String> subjects;
+    private int[] subjectCodes;    // replaced, never modified, so copies can share it
     private LocalDate enrollmentDate;
+    private int version;    // bumped by every change, so rendered copies can tell they are stale
     
     // Constructor
     public Student(int studentId, String firstName, String lastName, String email, 
@@ -31,10 +38,10 @@ public class Student {
         this.phoneNumber = phoneNumber;
         this.dateOfBirth = dateOfBirth;
         this.address = address;
-        this.course = course;
+        this.courseCode = StringDictionary.SHARED.encode(course);
         this.semester = semester;
         this.gpa = 0.0;
-        this.subjects = new ArrayList<>();
+        this.subjectCodes = NO_SUBJECTS;
         this.enrollmentDate = LocalDate.now();
     }
     
@@ -47,31 +54,76 @@ public class Student {
     public String getPhoneNumber() { return phoneNumber; }
     public LocalDate getDateOfBirth() { return dateOfBirth; }
     public String getAddress() { return address; }
-    public String getCourse() { return course; }
+    public String getCourse() { return StringDictionary.SHARED.decode(courseCode); }
+    public int getCourseCode() { return courseCode; }
     public int getSemester() { return semester; }
     public double getGpa() { return gpa; }
-    public List<String> getSubjects() { return subjects; }
+    public List<String> getSubjects() { return new SubjectList(subjectCodes); }    // read-only
     public LocalDate getEnrollmentDate() { return enrollmentDate; }
     
     // Setters
-    public void setFirstName(String firstName) { this.firstName = firstName; }
-    public void setLastName(String lastName) { this.lastName = lastName; }
-    public void setEmail(String email) { this.email = email; }
-    public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
-    public void setAddress(String address) { this.address = address; }
-    public void setCourse(String course) { this.course = course; }
-    public void setSemester(int semester) { this.semester = semester; }
-    public void setGpa(double gpa) { this.gpa = gpa; }
+    public void setFirstName(String firstName) { this.firstName = firstName; version++; }
+    public void setLastName(String lastName) { this.lastName = lastName; version++; }
+    public void setEmail(String email) { this.email = email; version++; }
+    public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; version++; }
+    public void setAddress(String address) { this.address = address; version++; }
+    public void setCourse(String course) { this.courseCode = StringDictionary.SHARED.encode(course); version++; }
+    public void setSemester(int semester) { this.semester = semester; version++; }
+    public void setGpa(double gpa) { this.gpa = gpa; version++; }
+    void setEnrollmentDate(LocalDate enrollmentDate) { this.enrollmentDate = enrollmentDate; version++; }
+    void setSubjectCodes(int[] subjectCodes) { this.subjectCodes = subjectCodes.length == 0 ? NO_SUBJECTS : subjectCodes; version++; }
+    
+    // Number of changes made to this record since it was created or loaded
+    int getVersion() { return version; }
     
     // Methods to manage subjects
     public void addSubject(String subject) {
-        if (!subjects.contains(subject)) {
-            subjects.add(subject);
+        int code = StringDictionary.SHARED.encode(subject);
+        if (!hasSubjectCode(code)) {
+            int[] codes = Arrays.copyOf(subjectCodes, subjectCodes.length + 1);
+            codes[subjectCodes.length] = code;
+            subjectCodes = codes;
+            version++;
         }
     }
     
     public void removeSubject(String subject) {
-        subjects.remove(subject);
+        int code = StringDictionary.SHARED.find(subject);
+        for (int i = 0; i < subjectCodes.length; i++) {
+            if (subjectCodes[i] == code) {
+                int[] codes = new int[subjectCodes.length - 1];
+                System.arraycopy(subjectCodes, 0, codes, 0, i);
+                System.arraycopy(subjectCodes, i + 1, codes, i, codes.length - i);
+                subjectCodes = codes.length == 0 ? NO_SUBJECTS : codes;
+                version++;
+                return;
+            }
+        }
+    }
+    
+    public boolean hasSubject(String subject) {
+        int code = StringDictionary.SHARED.find(subject);
+        return code >= 0 && hasSubjectCode(code);
+    }
+    
+    public boolean hasSubjectCode(int code) {
+        for (int subjectCode : subjectCodes) {
+            if (subjectCode == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Copy of this record, so that a changed version can replace it without readers seeing partial updates
+    Student copy() {
+        Student copy = new Student(studentId, firstName, lastName, email, phoneNumber,
+                                   dateOfBirth, address, getCourse(), semester);
+        copy.gpa = gpa;
+        copy.subjectCodes = subjectCodes;
+        copy.enrollmentDate = enrollmentDate;
+        copy.version = version;
+        return copy;
     }
     
     // Calculate age
@@ -82,19 +134,18 @@ public class Student {
     // Override toString for display
     @Override
     public String toString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = new StringBuilder(256);
         sb.append("Student ID: ").append(studentId).append("\n");
         sb.append("Name: ").append(getFullName()).append("\n");
         sb.append("Email: ").append(email).append("\n");
         sb.append("Phone: ").append(phoneNumber).append("\n");
-        sb.append("Date of Birth: ").append(dateOfBirth.format(formatter)).append(" (Age: ").append(getAge()).append(")\n");
+        sb.append("Date of Birth: ").append(dateOfBirth.format(DATE_FORMAT)).append(" (Age: ").append(getAge()).append(")\n");
         sb.append("Address: ").append(address).append("\n");
-        sb.append("Course: ").append(course).append("\n");
+        sb.append("Course: ").append(getCourse()).append("\n");
         sb.append("Semester: ").append(semester).append("\n");
         sb.append("GPA: ").append(String.format("%.2f", gpa)).append("\n");
-        sb.append("Subjects: ").append(subjects.toString()).append("\n");
-        sb.append("Enrollment Date: ").append(enrollmentDate.format(formatter)).append("\n");
+        sb.append("Subjects: ").append(getSubjects().toString()).append("\n");
+        sb.append("Enrollment Date: ").append(enrollmentDate.format(DATE_FORMAT)).append("\n");
         return sb.toString();
     }
     
@@ -111,4 +162,23 @@ public class Student {
     public int hashCode() {
         return Integer.hashCode(studentId);
     }
+    
+    // Read-only list of subject names decoded from a code array
+    private static class SubjectList extends AbstractList<String> {
+        private final int[] codes;
+        
+        SubjectList(int[] codes) {
+            this.codes = codes;
+        }
+        
+        @Override
+        public String get(int index) {
+            return StringDictionary.SHARED.decode(codes[index]);
+        }
+        
+        @Override
+        public int size() {
+            return codes.length;
+        }
+    }
 }
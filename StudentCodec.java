@@ -0,0 +1,402 @@
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * StudentCodec class implementing the compact binary record format used for students.dat
+ * and the journal. A file starts with a magic number, a format version, the next student
+ * ID and the record count; every record is length-prefixed so that readers can skip
+ * fields added by newer versions of the format. Since version 2 the records are followed
+ * by an index of (studentId, offset) pairs sorted by ID, which MappedStudentStore uses
+ * to find records without reading the whole file
+ */
+public final class StudentCodec {
+    public static final int MAGIC = 0x53524D53;    // "SRMS"
+    public static final byte VERSION = 2;
+    public static final int INDEX_MAGIC = 0x53524D49;    // "SRMI"
+    public static final int HEADER_SIZE = 13;             // magic, version, next ID, record count
+    public static final int INDEX_ENTRY_SIZE = 12;        // int studentId, long offset
+    public static final int TRAILER_SIZE = 12;            // long index offset, index magic
+    
+    private StudentCodec() {
+    }
+    
+    // Encode a single student as a length-prefixed record
+    public static void encode(DataOutput out, Student student) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+        DataOutputStream record = new DataOutputStream(buffer);
+        record.writeInt(student.getStudentId());
+        writeString(record, student.getFirstName());
+        writeString(record, student.getLastName());
+        writeString(record, student.getEmail());
+        writeString(record, student.getPhoneNumber());
+        record.writeInt((int) student.getDateOfBirth().toEpochDay());
+        writeString(record, student.getAddress());
+        writeString(record, student.getCourse());
+        record.writeInt(student.getSemester());
+        record.writeDouble(student.getGpa());
+        record.writeInt((int) student.getEnrollmentDate().toEpochDay());
+        writeVarInt(record, student.getSubjects().size());
+        for (String subject : student.getSubjects()) {
+            writeString(record, subject);
+        }
+        
+        writeVarInt(out, buffer.size());
+        buffer.writeTo(new OutputStreamAdapter(out));
+    }
+    
+    // Decode a single length-prefixed record written by encode()
+    public static Student decode(DataInput in) throws IOException {
+        int length = readVarInt(in);
+        if (length < 0) {
+            throw new IOException("Corrupt student record length: " + length);
+        }
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return decodePayload(ByteBuffer.wrap(payload));
+    }
+    
+    // Decode the record starting at the given position of a buffer, leaving the buffer itself untouched
+    public static Student decode(ByteBuffer buffer, int offset) throws IOException {
+        if (offset < 0 || offset >= buffer.limit()) {
+            throw new IOException("Corrupt student record offset: " + offset);
+        }
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        int length;
+        try {
+            length = readVarInt(view);
+        } catch (BufferUnderflowException | IllegalStateException e) {
+            throw new IOException("Truncated student record");
+        }
+        if (length < 0 || length > view.remaining()) {
+            throw new IOException("Corrupt student record length: " + length);
+        }
+        view.limit(view.position() + length);
+        return decodePayload(view);
+    }
+    
+    // Read only the email of the record at the given position, skipping the names before it
+    static String readEmail(ByteBuffer buffer, int offset) throws IOException {
+        if (offset < 0 || offset >= buffer.limit()) {
+            throw new IOException("Corrupt student record offset: " + offset);
+        }
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        try {
+            int length = readVarInt(view);
+            if (length < 0 || length > view.remaining()) {
+                throw new IOException("Corrupt student record length: " + length);
+            }
+            view.limit(view.position() + length);
+            view.getInt();    // student ID
+            skipString(view);
+            skipString(view);
+            return readString(view);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated student record");
+        } catch (IllegalStateException e) {
+            throw new IOException("Corrupt student record: " + e.getMessage());
+        }
+    }
+    
+    // Read only the student ID of the record at the given position and return the position of the next record
+    static long scanRecord(ByteBuffer buffer, int offset, int[] studentId) throws IOException {
+        if (offset < 0 || offset >= buffer.limit()) {
+            throw new IOException("Truncated student data file");
+        }
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        int length;
+        try {
+            length = readVarInt(view);
+        } catch (BufferUnderflowException | IllegalStateException e) {
+            throw new IOException("Truncated student record");
+        }
+        if (length < 4 || length > view.remaining()) {
+            throw new IOException("Corrupt student record length: " + length);
+        }
+        studentId[0] = view.getInt(view.position());
+        return (long) view.position() + length;
+    }
+    
+    // Decode the record between the buffer's position and limit; reads the buffer directly, with no stream per record
+    private static Student decodePayload(ByteBuffer record) throws IOException {
+        try {
+            int studentId = record.getInt();
+            String firstName = readString(record);
+            String lastName = readString(record);
+            String email = readString(record);
+            String phoneNumber = readString(record);
+            LocalDate dateOfBirth = LocalDate.ofEpochDay(record.getInt());
+            String address = readString(record);
+            String course = readString(record);
+            int semester = record.getInt();
+            
+            Student student = new Student(studentId, firstName, lastName, email, phoneNumber,
+                                          dateOfBirth, address, course, semester);
+            student.setGpa(record.getDouble());
+            student.setEnrollmentDate(LocalDate.ofEpochDay(record.getInt()));
+            int subjectCount = readVarInt(record);
+            if (subjectCount < 0 || subjectCount > record.remaining()) {    // each subject takes at least a byte
+                throw new IllegalStateException("Corrupt subject count: " + subjectCount);
+            }
+            int[] subjectCodes = new int[subjectCount];
+            for (int i = 0; i < subjectCodes.length; i++) {
+                subjectCodes[i] = StringDictionary.SHARED.encode(readString(record));
+            }
+            student.setSubjectCodes(subjectCodes);
+            // Any remaining bytes belong to fields from a newer format version and are ignored
+            return student;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated student record");
+        } catch (IllegalStateException | DateTimeException e) {
+            throw new IOException("Corrupt student record: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Streaming writer for a whole student file
+     */
+    public static class Encoder implements Closeable {
+        private final CountingOutputStream counter;
+        private final DataOutputStream out;
+        private int[] ids = new int[1024];
+        private long[] offsets = new long[1024];
+        private int written;
+        
+        public Encoder(OutputStream out, int nextStudentId, int recordCount) throws IOException {
+            this.counter = new CountingOutputStream(new BufferedOutputStream(out, 64 * 1024));
+            this.out = new DataOutputStream(counter);
+            this.out.writeInt(MAGIC);
+            this.out.writeByte(VERSION);
+            this.out.writeInt(nextStudentId);
+            this.out.writeInt(recordCount);
+        }
+        
+        public void write(Student student) throws IOException {
+            if (written == ids.length) {
+                ids = Arrays.copyOf(ids, written * 2);
+                offsets = Arrays.copyOf(offsets, written * 2);
+            }
+            ids[written] = student.getStudentId();
+            offsets[written] = counter.count;
+            written++;
+            encode(out, student);
+        }
+        
+        public void flush() throws IOException {
+            out.flush();
+        }
+        
+        // Append the ID-sorted index and the trailer, then close the stream
+        @Override
+        public void close() throws IOException {
+            long indexOffset = counter.count;
+            long[] order = new long[written];
+            for (int i = 0; i < written; i++) {
+                order[i] = ((long) ids[i] << 32) | i;
+            }
+            Arrays.sort(order);
+            
+            out.writeInt(written);
+            for (long entry : order) {
+                int i = (int) entry;
+                out.writeInt(ids[i]);
+                out.writeLong(offsets[i]);
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(INDEX_MAGIC);
+            out.close();
+        }
+    }
+    
+    /**
+     * Streaming reader for a whole student file
+     */
+    public static class Decoder implements Closeable {
+        private final DataInputStream in;
+        private final int version;
+        private final int nextStudentId;
+        private final int recordCount;
+        private int recordsRead;
+        private byte[] record = new byte[256];    // reused for every record
+        private ByteBuffer recordBuffer = ByteBuffer.wrap(record);
+        
+        public Decoder(InputStream in) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+            if (this.in.readInt() != MAGIC) {
+                throw new IOException("Not a student data file");
+            }
+            this.version = this.in.readByte();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported student data format version: " + version);
+            }
+            this.nextStudentId = this.in.readInt();
+            this.recordCount = this.in.readInt();
+            if (recordCount < 0) {
+                throw new IOException("Corrupt student record count: " + recordCount);
+            }
+        }
+        
+        public int getVersion() { return version; }
+        public int getNextStudentId() { return nextStudentId; }
+        public int getRecordCount() { return recordCount; }
+        
+        public boolean hasNext() {
+            return recordsRead < recordCount;
+        }
+        
+        public Student next() throws IOException {
+            if (!hasNext()) {
+                throw new EOFException("No more student records");
+            }
+            recordsRead++;
+            int length = readVarInt(in);
+            if (length < 0) {
+                throw new IOException("Corrupt student record length: " + length);
+            }
+            if (length > record.length) {
+                record = new byte[Math.max(length, record.length * 2)];
+                recordBuffer = ByteBuffer.wrap(record);
+            }
+            in.readFully(record, 0, length);
+            recordBuffer.clear().limit(length);
+            return decodePayload(recordBuffer);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+    
+    // Strings are stored as a varint of (UTF-8 length + 1), with 0 meaning null
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+    
+    private static String readString(DataInput in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        if (length < 0) {
+            throw new IOException("Corrupt string length: " + length);
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+    
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+    
+    private static String readString(ByteBuffer in) {
+        int varint = readVarInt(in);
+        if (varint == 0) {
+            return null;
+        }
+        int length = varint - 1;
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalStateException("Corrupt string length: " + length);
+        }
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+    
+    private static void skipString(ByteBuffer in) {
+        int length = readVarInt(in) - 1;
+        if (length < -1 || length > in.remaining()) {
+            throw new IllegalStateException("Corrupt string length: " + length);
+        }
+        in.position(in.position() + Math.max(length, 0));
+    }
+    
+    static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+    
+    // Tracks the byte position of each record for the index
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+        
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+    
+    // Lets a ByteArrayOutputStream copy its buffer into any DataOutput without an extra array copy
+    private static class OutputStreamAdapter extends OutputStream {
+        private final DataOutput out;
+        
+        OutputStreamAdapter(DataOutput out) {
+            this.out = out;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+    }
+}
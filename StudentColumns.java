@@ -0,0 +1,280 @@
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * StudentColumns class keeping the fields used by analytics in parallel primitive arrays
+ * Filters and aggregates run as tight loops over these columns instead of walking Student objects;
+ * callers turn the matching IDs back into students only when they need them. Courses are held
+ * as their StringDictionary codes and enrollment dates as epoch days. Rows are unordered
+ */
+public class StudentColumns {
+    private static final int INITIAL_CAPACITY = 1024;
+    
+    private int[] ids;
+    private double[] gpas;
+    private int[] semesters;
+    private int[] courseCodes;
+    private int[] enrollmentDays;
+    private int size;
+    private final RowIndex rows;    // student ID -> row
+    
+    public StudentColumns() {
+        this(INITIAL_CAPACITY);
+    }
+    
+    public StudentColumns(int capacity) {
+        capacity = Math.max(capacity, 16);
+        this.ids = new int[capacity];
+        this.gpas = new double[capacity];
+        this.semesters = new int[capacity];
+        this.courseCodes = new int[capacity];
+        this.enrollmentDays = new int[capacity];
+        this.rows = new RowIndex(capacity);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public void add(Student student) {
+        if (size == ids.length) {
+            grow();
+        }
+        int row = size++;
+        ids[row] = student.getStudentId();
+        gpas[row] = student.getGpa();
+        semesters[row] = student.getSemester();
+        courseCodes[row] = student.getCourseCode();
+        enrollmentDays[row] = (int) student.getEnrollmentDate().toEpochDay();
+        rows.put(student.getStudentId(), row);
+    }
+    
+    // Remove a student by moving the last row into its place
+    public void remove(int studentId) {
+        int row = rows.remove(studentId);
+        if (row < 0) {
+            return;
+        }
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            gpas[row] = gpas[last];
+            semesters[row] = semesters[last];
+            courseCodes[row] = courseCodes[last];
+            enrollmentDays[row] = enrollmentDays[last];
+            rows.put(ids[row], row);
+        }
+    }
+    
+    // IDs of students matching every given condition; a null course or semester matches anything
+    public int[] filter(String course, Integer semester, double minGpa, double maxGpa) {
+        boolean[] courses = matchingCourses(course);
+        boolean anySemester = semester == null;
+        int wanted = anySemester ? 0 : semester;
+        
+        int[] matches = new int[16];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if ((anySemester || semesters[row] == wanted)
+                    && (courses == null || courses[courseCodes[row]])
+                    && gpas[row] >= minGpa && gpas[row] <= maxGpa) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = ids[row];
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+    
+    // IDs of students who enrolled between the two dates, inclusive
+    public int[] findByEnrollmentDate(LocalDate from, LocalDate to) {
+        int first = (int) from.toEpochDay();
+        int last = (int) to.toEpochDay();
+        int[] matches = new int[16];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            int day = enrollmentDays[row];
+            if (day >= first && day <= last) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = ids[row];
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+    
+    // GPA aggregates over the graded students (GPA > 0) of a course and/or semester
+    public GpaSummary summarizeGpa(String course, Integer semester) {
+        boolean[] courses = matchingCourses(course);
+        boolean anySemester = semester == null;
+        int wanted = anySemester ? 0 : semester;
+        
+        int count = 0;
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int row = 0; row < size; row++) {
+            double gpa = gpas[row];
+            if (gpa > 0 && (anySemester || semesters[row] == wanted)
+                    && (courses == null || courses[courseCodes[row]])) {
+                count++;
+                sum += gpa;
+                min = Math.min(min, gpa);
+                max = Math.max(max, gpa);
+            }
+        }
+        return count == 0 ? new GpaSummary(0, 0, 0, 0) : new GpaSummary(count, sum, min, max);
+    }
+    
+    // Decide each dictionary entry once (case-insensitive substring), so rows only compare codes
+    private static boolean[] matchingCourses(String course) {
+        return course == null ? null : StringDictionary.SHARED.findContaining(course);
+    }
+    
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        gpas = Arrays.copyOf(gpas, capacity);
+        semesters = Arrays.copyOf(semesters, capacity);
+        courseCodes = Arrays.copyOf(courseCodes, capacity);
+        enrollmentDays = Arrays.copyOf(enrollmentDays, capacity);
+    }
+    
+    /**
+     * Open-addressing map from student ID to row, laid out like IntObjectMap (home slot is the ID masked
+     * to the table size, Robin Hood probing) but with the rows in an int array, so nothing is boxed
+     */
+    private static class RowIndex {
+        private static final int EMPTY = -1;
+        
+        private int[] keys;
+        private int[] rows;    // EMPTY marks an empty slot
+        private int mask;
+        private int size;
+        private int threshold;
+        
+        RowIndex(int expectedSize) {
+            int capacity = 16;
+            while (capacity * 3 / 4 < expectedSize) {
+                capacity <<= 1;
+            }
+            allocate(capacity);
+        }
+        
+        void put(int key, int row) {
+            int slot = find(key);
+            if (slot >= 0) {
+                rows[slot] = row;
+                return;
+            }
+            if (size >= threshold) {
+                allocate(rows.length << 1);
+            }
+            insert(key, row);
+            size++;
+        }
+        
+        // Returns the removed row, or EMPTY
+        int remove(int key) {
+            int slot = find(key);
+            if (slot < 0) {
+                return EMPTY;
+            }
+            int row = rows[slot];
+            int next = (slot + 1) & mask;
+            while (rows[next] != EMPTY && distance(next, keys[next]) > 0) {
+                keys[slot] = keys[next];
+                rows[slot] = rows[next];
+                slot = next;
+                next = (next + 1) & mask;
+            }
+            rows[slot] = EMPTY;
+            size--;
+            return row;
+        }
+        
+        private int find(int key) {
+            int slot = key & mask;
+            for (int probes = 0; rows[slot] != EMPTY; probes++) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                if (distance(slot, keys[slot]) < probes) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+        
+        private void insert(int key, int row) {
+            int slot = key & mask;
+            int probes = 0;
+            while (rows[slot] != EMPTY) {
+                int residentProbes = distance(slot, keys[slot]);
+                if (residentProbes < probes) {
+                    int residentKey = keys[slot];
+                    int residentRow = rows[slot];
+                    keys[slot] = key;
+                    rows[slot] = row;
+                    key = residentKey;
+                    row = residentRow;
+                    probes = residentProbes;
+                }
+                slot = (slot + 1) & mask;
+                probes++;
+            }
+            keys[slot] = key;
+            rows[slot] = row;
+        }
+        
+        private int distance(int slot, int key) {
+            return (slot - key) & mask;
+        }
+        
+        private void allocate(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldRows = rows;
+            keys = new int[capacity];
+            rows = new int[capacity];
+            Arrays.fill(rows, EMPTY);
+            mask = capacity - 1;
+            threshold = capacity * 3 / 4;
+            if (oldRows != null) {
+                for (int i = 0; i < oldRows.length; i++) {
+                    if (oldRows[i] != EMPTY) {
+                        insert(oldKeys[i], oldRows[i]);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * GPA count, sum, minimum and maximum of a group of students
+     */
+    public static class GpaSummary {
+        private final int count;
+        private final double sum;
+        private final double min;
+        private final double max;
+        
+        GpaSummary(int count, double sum, double min, double max) {
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+        
+        public int getCount() { return count; }
+        public double getSum() { return sum; }
+        public double getMin() { return min; }
+        public double getMax() { return max; }
+        
+        public double getAverage() {
+            return count == 0 ? 0 : sum / count;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * StudentCsvImporter class streaming students from a CSV file into a StudentDatabase
+ * The first line is a header naming the columns firstName, lastName, email, phone, dateOfBirth
+ * (dd/MM/yyyy), address, course, semester and optionally gpa, in any order. Lines are read in
+ * chunks that are parsed and validated in parallel, inserted in file order, and persisted with
+ * a single snapshot write at the end. Only a bounded number of chunks is in memory at once.
+ * Quoted fields may contain commas and doubled quotes but not line breaks
+ */
+public class StudentCsvImporter {
+    private static final int CHUNK_SIZE = 10000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final String[] REQUIRED_COLUMNS = {
+        "firstname", "lastname", "email", "phone", "dateofbirth", "address", "course", "semester"
+    };
+    
+    private final StudentDatabase database;
+    private final DateTimeFormatter dateFormatter;
+    private final int threads;
+    
+    public StudentCsvImporter(StudentDatabase database) {
+        this.database = database;
+        this.dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        this.threads = Runtime.getRuntime().availableProcessors();
+    }
+    
+    public ImportReport importFile(Path file) throws IOException {
+        ImportReport report = new ImportReport();
+        ExecutorService parsers = Executors.newFixedThreadPool(threads);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return report;
+            }
+            Map<String, Integer> columns = parseHeader(header);
+            
+            // Keep at most two chunks per parser thread in flight
+            Deque<Future<ParsedChunk>> pending = new ArrayDeque<>();
+            long lineNumber = 1;
+            List<String> lines = new ArrayList<>(CHUNK_SIZE);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                if (lines.size() == CHUNK_SIZE) {
+                    pending.add(submit(parsers, columns, lines, lineNumber + 1));
+                    lineNumber += lines.size();
+                    lines = new ArrayList<>(CHUNK_SIZE);
+                    if (pending.size() >= threads * 2) {
+                        insert(pending.poll(), report);
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                pending.add(submit(parsers, columns, lines, lineNumber + 1));
+            }
+            while (!pending.isEmpty()) {
+                insert(pending.poll(), report);
+            }
+        } finally {
+            parsers.shutdownNow();
+            if (report.imported > 0) {
+                database.compact();
+            }
+        }
+        return report;
+    }
+    
+    private Future<ParsedChunk> submit(ExecutorService parsers, Map<String, Integer> columns,
+                                       List<String> lines, long firstLineNumber) {
+        return parsers.submit(() -> parseChunk(columns, lines, firstLineNumber));
+    }
+    
+    // Insert one parsed chunk; duplicate emails are rejected by the database's email index
+    private void insert(Future<ParsedChunk> future, ImportReport report) throws IOException {
+        ParsedChunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("CSV import interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("CSV import failed", e.getCause());
+        }
+        
+        report.rowsRead += chunk.students.size() + chunk.errors.size();
+        for (RowError error : chunk.errors) {
+            report.addError(error);
+        }
+        int[] studentIds = database.addStudentsInBulk(chunk.students);
+        for (int i = 0; i < studentIds.length; i++) {
+            if (studentIds[i] < 0) {
+                report.addError(new RowError(chunk.lineNumbers[i], "Email already exists: "
+                                             + chunk.students.get(i).getEmail()));
+            } else {
+                report.imported++;
+            }
+        }
+    }
+    
+    private ParsedChunk parseChunk(Map<String, Integer> columns, List<String> lines, long firstLineNumber) {
+        ParsedChunk chunk = new ParsedChunk(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            long lineNumber = firstLineNumber + i;
+            try {
+                chunk.add(lineNumber, parseRow(columns, splitLine(lines.get(i))));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                chunk.errors.add(new RowError(lineNumber, e.getMessage()));
+            }
+        }
+        return chunk;
+    }
+    
+    // Build an unsaved Student (ID 0) from one row; the database assigns the real ID
+    private Student parseRow(Map<String, Integer> columns, List<String> fields) {
+        String firstName = required(columns, fields, "firstname");
+        String lastName = required(columns, fields, "lastname");
+        String email = required(columns, fields, "email");
+        if (email.indexOf('@') <= 0) {
+            throw new IllegalArgumentException("Invalid email: " + email);
+        }
+        String phoneNumber = field(columns, fields, "phone");
+        LocalDate dateOfBirth = LocalDate.parse(required(columns, fields, "dateofbirth"), dateFormatter);
+        String address = field(columns, fields, "address");
+        String course = required(columns, fields, "course");
+        int semester = parseInt(required(columns, fields, "semester"), "semester");
+        if (semester < 1) {
+            throw new IllegalArgumentException("Invalid semester: " + semester);
+        }
+        
+        Student student = new Student(0, firstName, lastName, email, phoneNumber,
+                                      dateOfBirth, address, course, semester);
+        String gpa = field(columns, fields, "gpa");
+        if (!gpa.isEmpty()) {
+            try {
+                student.setGpa(Double.parseDouble(gpa));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid gpa: " + gpa);
+            }
+            if (!(Double.isFinite(student.getGpa()) && student.getGpa() >= 0)) {
+                throw new IllegalArgumentException("Invalid gpa: " + gpa);
+            }
+        }
+        return student;
+    }
+    
+    private static Map<String, Integer> parseHeader(String header) throws IOException {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new IOException("CSV header is missing column: " + column);
+            }
+        }
+        return columns;
+    }
+    
+    private static String field(Map<String, Integer> columns, List<String> fields, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= fields.size() ? "" : fields.get(index).trim();
+    }
+    
+    private static String required(Map<String, Integer> columns, List<String> fields, String column) {
+        String value = field(columns, fields, column);
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("Missing " + column);
+        }
+        return value;
+    }
+    
+    private static int parseInt(String value, String column) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+    
+    // Split one CSV line, honouring double-quoted fields
+    static List<String> splitLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+    
+    private static class ParsedChunk {
+        final List<Student> students;
+        final List<RowError> errors;
+        final long[] lineNumbers;
+        
+        ParsedChunk(int capacity) {
+            this.students = new ArrayList<>(capacity);
+            this.errors = new ArrayList<>();
+            this.lineNumbers = new long[capacity];
+        }
+        
+        void add(long lineNumber, Student student) {
+            lineNumbers[students.size()] = lineNumber;
+            students.add(student);
+        }
+    }
+    
+    /**
+     * Problem found in one CSV row
+     */
+    public static class RowError {
+        private final long lineNumber;
+        private final String message;
+        
+        public RowError(long lineNumber, String message) {
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+        
+        public long getLineNumber() { return lineNumber; }
+        public String getMessage() { return message; }
+        
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ": " + message;
+        }
+    }
+    
+    /**
+     * Outcome of an import; only the first errors are kept, but all of them are counted
+     */
+    public static class ImportReport {
+        private long rowsRead;
+        private long imported;
+        private long failed;
+        private final List<RowError> errors = new ArrayList<>();
+        
+        public long getRowsRead() { return rowsRead; }
+        public long getImported() { return imported; }
+        public long getFailed() { return failed; }
+        public List<RowError> getErrors() { return Collections.unmodifiableList(errors); }
+        
+        private void addError(RowError error) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * StudentDataGenerator class producing reproducible synthetic students for benchmarks and load tests
+ * The same seed always yields the same sequence of records
+ */
+public class StudentDataGenerator {
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth",
+        "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Aarav", "Priya", "Rohan", "Ananya",
+        "Vikram", "Sneha", "Arjun", "Kavya", "Wei", "Mei", "Hiroshi", "Yuki", "Carlos", "Sofia"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+        "Sharma", "Patel", "Gupta", "Singh", "Kumar", "Reddy", "Nair", "Iyer", "Chen", "Wang",
+        "Tanaka", "Sato", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson"
+    };
+    private static final String[] COURSES = {
+        "Computer Science", "Computer Engineering", "Electrical Engineering", "Mechanical Engineering",
+        "Civil Engineering", "Physics", "Applied Physics", "Mathematics", "Chemistry", "Biology",
+        "Economics", "Business Administration", "Psychology", "English Literature", "History"
+    };
+    private static final String[] CITIES = {
+        "Springfield", "Riverside", "Fairview", "Madison", "Georgetown", "Salem", "Clinton", "Franklin"
+    };
+    private static final String[] SUBJECTS = {
+        "Mathematics", "Physics", "Chemistry", "Programming", "Data Structures", "Algorithms",
+        "Databases", "Networks", "Statistics", "Economics", "Writing", "Ethics"
+    };
+    
+    private final SplittableRandom random;
+    private final String emailDomain;
+    private int sequence;
+    
+    public StudentDataGenerator(long seed) {
+        this(seed, "uni.edu");
+    }
+    
+    // Generators with different email domains never produce the same email
+    public StudentDataGenerator(long seed, String emailDomain) {
+        this.random = new SplittableRandom(seed);
+        this.emailDomain = emailDomain;
+    }
+    
+    // Next unsaved student (ID 0); emails are unique within one generator
+    public Student next() {
+        int n = sequence++;
+        String firstName = pick(FIRST_NAMES);
+        String lastName = pick(LAST_NAMES);
+        LocalDate dateOfBirth = LocalDate.of(1995, 1, 1).plusDays(random.nextInt(3650));
+        Student student = new Student(0, firstName, lastName,
+                                      firstName.toLowerCase() + "." + lastName.toLowerCase() + n + "@" + emailDomain,
+                                      String.format("555-%07d", n), dateOfBirth,
+                                      random.nextInt(1, 10000) + " Main St, " + pick(CITIES),
+                                      pick(COURSES), random.nextInt(1, 9));
+        student.setGpa(Math.round(random.nextDouble(1.0, 4.0) * 100) / 100.0);
+        int subjects = random.nextInt(0, 5);
+        for (int i = 0; i < subjects; i++) {
+            student.addSubject(pick(SUBJECTS));
+        }
+        return student;
+    }
+    
+    public List<Student> next(int count) {
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            students.add(next());
+        }
+        return students;
+    }
+    
+    // Fill a database with count generated students and persist them as one snapshot
+    public void populate(StudentDatabase database, int count) {
+        for (int done = 0; done < count; done += 10000) {
+            database.addStudentsInBulk(next(Math.min(10000, count - done)));
+        }
+        database.compact();
+    }
+    
+    // Add the next generated student through the regular addStudent path
+    public boolean addNext(StudentDatabase database) {
+        Student s = next();
+        return database.addStudent(s.getFirstName(), s.getLastName(), s.getEmail(), s.getPhoneNumber(),
+                                   s.getDateOfBirth(), s.getAddress(), s.getCourse(), s.getSemester()) > 0;
+    }
+    
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
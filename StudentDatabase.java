@@ -1,61 +1,167 @@
 import java.util.*;
 import java.time.LocalDate;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * StudentDatabase class to manage all student records
  * Provides CRUD operations and search functionality
+ * Mutations are journaled to an append-only log and periodically compacted into the snapshot file,
+ * which is written in the binary format of StudentCodec and memory-mapped on startup. Journal
+ * writes are batched by a PersistenceScheduler; use flush() when a change must be on disk.
+ * Core operations and persistence are timed by a StudentMetrics, which is disabled unless enabled
+ * with -Dstudent.metrics or passed in. Not thread-safe, except that a snapshot() may be scanned from
+ * any thread while changes continue
  */
-public class StudentDatabase {
-    private Map<Integer, Student> students;
+public class StudentDatabase implements Closeable {
+    private IntKeyedMap<Student> students;
     private int nextStudentId;
+    private final String dataFile;
+    private final PersistenceScheduler persistence;
+    private Map<String, Integer> emailIndex;    // case-folded email -> student ID, built on first use
+    private NameIndex nameIndex;                // trigram index over full names, built on first name search
+    private CourseIndex courseIndex;            // sorted course dictionary, built on first course search
+    private SemesterIndex semesterIndex;        // semester posting lists, built on first semester search
+    private SortedStudentView<SortedStudentView.NameKey> nameView;    // ordered views, built on first sorted listing
+    private SortedStudentView<SortedStudentView.GpaKey> gpaView;
+    private SortedStudentView<Integer> idView;
+    private StudentStatistics statistics;       // running aggregates, built on first read
+    private StudentColumns columns;             // primitive columns for analytics scans, built on first use
+    private final CourseCatalog courseCatalog;  // courses and enrollments; kept in memory only
+    private final StudentRenderCache renderCache;    // display text of recently viewed students and listings
+    private StudentVersions versions;           // frozen copies for snapshot readers, built on first snapshot
+    private final StudentMetrics metrics;
+    private final boolean ownsMetrics;          // created from the system property, so closed with the database
     private static final String DATA_FILE = "students.dat";
+    private static final String LOG_SUFFIX = ".log";
+    private static final int RENDERED_STUDENTS = 10000;
+    private static final long RENDERED_LISTING_CHARS = 4000000;    // about 8 MB of listing text
     
     public StudentDatabase() {
-        this.students = new HashMap<>();
+        this(DATA_FILE);
+    }
+    
+    public StudentDatabase(String dataFile) {
+        this(dataFile, StudentMetrics.fromSystemProperty(dataFile), true);
+    }
+    
+    // Record operation metrics into the given StudentMetrics, which the caller closes
+    public StudentDatabase(String dataFile, StudentMetrics metrics) {
+        this(dataFile, metrics, false);
+    }
+    
+    private StudentDatabase(String dataFile, StudentMetrics metrics, boolean ownsMetrics) {
+        this.metrics = metrics;
+        this.ownsMetrics = ownsMetrics;
+        this.students = new IntObjectMap<>();
         this.nextStudentId = 1001; // Starting ID
-        loadFromFile();
+        this.dataFile = dataFile;
+        this.courseCatalog = new CourseCatalog();
+        this.renderCache = new StudentRenderCache(RENDERED_STUDENTS, RENDERED_LISTING_CHARS);
+        StudentJournal journal = new StudentJournal(dataFile + LOG_SUFFIX);
+        long start = metrics.start();
+        metrics.record(StudentMetrics.Operation.LOAD, start, loadFromFile(journal));
+        this.persistence = new PersistenceScheduler(journal, metrics);
     }
     
-    // Add a new student
-    public boolean addStudent(String firstName, String lastName, String email, 
-                             String phoneNumber, LocalDate dateOfBirth, String address, 
-                             String course, int semester) {
+    // Add a new student; returns the new ID, or -1 if the email already exists
+    public int addStudent(String firstName, String lastName, String email, 
+                          String phoneNumber, LocalDate dateOfBirth, String address, 
+                          String course, int semester) {
+        long start = metrics.start();
+        int studentId = -1;
+        try {
+            studentId = insertStudent(firstName, lastName, email, phoneNumber, dateOfBirth, address, course, semester);
+            return studentId;
+        } finally {
+            metrics.record(StudentMetrics.Operation.ADD, start, studentId > 0);
+        }
+    }
+    
+    private int insertStudent(String firstName, String lastName, String email, 
+                              String phoneNumber, LocalDate dateOfBirth, String address, 
+                              String course, int semester) {
         // Check if email already exists
         if (isEmailExists(email)) {
-            System.out.println("Error: Email already exists!");
-            return false;
+            return -1;
         }
         
         Student student = new Student(nextStudentId++, firstName, lastName, email, 
                                     phoneNumber, dateOfBirth, address, course, semester);
         students.put(student.getStudentId(), student);
-        saveToFile();
-        System.out.println("Student added successfully with ID: " + student.getStudentId());
-        return true;
+        emailIndex().put(emailKey(email), student.getStudentId());
+        indexStudent(student);
+        journalPut(student);
+        return student.getStudentId();
+    }
+    
+    // Add a batch of new students built with ID 0, skipping the journal; returns each new ID, or -1 for a duplicate email
+    // The batch is only persisted by the next compact(), which bulk loaders call once at the end
+    int[] addStudentsInBulk(List<Student> drafts) {
+        int[] studentIds = new int[drafts.size()];
+        for (int i = 0; i < drafts.size(); i++) {
+            Student draft = drafts.get(i);
+            String key = emailKey(draft.getEmail());
+            if (emailIndex().containsKey(key)) {
+                studentIds[i] = -1;
+                continue;
+            }
+            Student student = new Student(nextStudentId++, draft.getFirstName(), draft.getLastName(),
+                                          draft.getEmail(), draft.getPhoneNumber(), draft.getDateOfBirth(),
+                                          draft.getAddress(), draft.getCourse(), draft.getSemester());
+            student.setGpa(draft.getGpa());
+            for (String subject : draft.getSubjects()) {
+                student.addSubject(subject);
+            }
+            students.put(student.getStudentId(), student);
+            emailIndex().put(key, student.getStudentId());
+            indexStudent(student);
+            studentIds[i] = student.getStudentId();
+        }
+        return studentIds;
     }
     
     // Get student by ID
     public Student getStudent(int studentId) {
-        return students.get(studentId);
+        long start = metrics.start();
+        Student student = students.get(studentId);
+        metrics.record(StudentMetrics.Operation.GET, start, student != null);
+        return student;
     }
     
-    // Update student information
+    // Update student information; returns false if the student is missing or the email belongs to another
     public boolean updateStudent(int studentId, String firstName, String lastName, 
                                String email, String phoneNumber, String address, 
                                String course, int semester, double gpa) {
+        long start = metrics.start();
+        boolean updated = false;
+        try {
+            updated = applyUpdate(studentId, firstName, lastName, email, phoneNumber, address, course, semester, gpa);
+            return updated;
+        } finally {
+            metrics.record(StudentMetrics.Operation.UPDATE, start, updated);
+        }
+    }
+    
+    private boolean applyUpdate(int studentId, String firstName, String lastName, 
+                                String email, String phoneNumber, String address, 
+                                String course, int semester, double gpa) {
         Student student = students.get(studentId);
         if (student == null) {
-            System.out.println("Student not found!");
             return false;
         }
         
         // Check if new email conflicts with existing students
-        if (!student.getEmail().equals(email) && isEmailExists(email)) {
-            System.out.println("Error: Email already exists!");
+        Integer owner = emailIndex().get(emailKey(email));
+        if (owner != null && owner != studentId) {
             return false;
         }
         
+        emailIndex().remove(emailKey(student.getEmail()), studentId);
+        emailIndex().put(emailKey(email), studentId);
+        unindexStudent(student);
+        
         student.setFirstName(firstName);
         student.setLastName(lastName);
         student.setEmail(email);
@@ -64,99 +170,535 @@ public class StudentDatabase {
         student.setCourse(course);
         student.setSemester(semester);
         student.setGpa(gpa);
+        indexStudent(student);
         
-        saveToFile();
-        System.out.println("Student updated successfully!");
+        journalPut(student);
         return true;
     }
     
     // Delete student
     public boolean deleteStudent(int studentId) {
+        long start = metrics.start();
+        boolean deleted = false;
+        try {
+            deleted = removeStudent(studentId);
+            return deleted;
+        } finally {
+            metrics.record(StudentMetrics.Operation.DELETE, start, deleted);
+        }
+    }
+    
+    private boolean removeStudent(int studentId) {
         Student removed = students.remove(studentId);
         if (removed != null) {
-            saveToFile();
-            System.out.println("Student deleted successfully!");
+            emailIndex().remove(emailKey(removed.getEmail()), studentId);
+            unindexStudent(removed);
+            if (versions != null) {
+                versions.publishDelete(studentId);
+            }
+            courseCatalog.removeStudent(studentId);
+            journalDelete(studentId);
             return true;
-        } else {
-            System.out.println("Student not found!");
+        }
+        return false;
+    }
+    
+    public CourseCatalog getCourseCatalog() {
+        return courseCatalog;
+    }
+    
+    // Enroll a student in a catalog course, or waitlist them if it is full
+    public CourseCatalog.EnrollmentResult enrollInCourse(int studentId, String courseId) {
+        if (!students.containsKey(studentId)) {
+            return CourseCatalog.EnrollmentResult.NO_SUCH_STUDENT;
+        }
+        return courseCatalog.enroll(studentId, courseId);
+    }
+    
+    // Drop a student from a catalog course
+    public boolean dropFromCourse(int studentId, String courseId) {
+        return courseCatalog.drop(studentId, courseId);
+    }
+    
+    // Add a subject to a student
+    public boolean addSubject(int studentId, String subject) {
+        Student student = students.get(studentId);
+        if (student == null) {
             return false;
         }
+        student.addSubject(subject);
+        if (versions != null) {
+            versions.publish(student);
+        }
+        journalPut(student);
+        return true;
     }
     
-    // Search students by name
+    // Remove a subject from a student
+    public boolean removeSubject(int studentId, String subject) {
+        Student student = students.get(studentId);
+        if (student == null) {
+            return false;
+        }
+        student.removeSubject(subject);
+        if (versions != null) {
+            versions.publish(student);
+        }
+        journalPut(student);
+        return true;
+    }
+    
+    // Search students by name, best matches first
     public List<Student> searchByName(String name) {
+        long start = metrics.start();
         List<Student> results = new ArrayList<>();
-        String searchName = name.toLowerCase();
-        
-        for (Student student : students.values()) {
-            if (student.getFullName().toLowerCase().contains(searchName) ||
-                student.getFirstName().toLowerCase().contains(searchName) ||
-                student.getLastName().toLowerCase().contains(searchName)) {
-                results.add(student);
-            }
+        for (int studentId : nameIndex().search(name)) {
+            results.add(students.get(studentId));
         }
+        metrics.record(StudentMetrics.Operation.SEARCH_BY_NAME, start, true);
         return results;
     }
     
-    // Search students by course
+    // Search students by course (substring of the course name)
     public List<Student> searchByCourse(String course) {
-        List<Student> results = new ArrayList<>();
-        String searchCourse = course.toLowerCase();
-        
-        for (Student student : students.values()) {
-            if (student.getCourse().toLowerCase().contains(searchCourse)) {
-                results.add(student);
-            }
-        }
+        long start = metrics.start();
+        List<Student> results = toStudents(courseIndex().findContaining(course));
+        metrics.record(StudentMetrics.Operation.SEARCH_BY_COURSE, start, true);
         return results;
     }
     
+    // Search students whose course name starts with the given text
+    public List<Student> searchByCoursePrefix(String prefix) {
+        return toStudents(courseIndex().findByPrefix(prefix));
+    }
+    
     // Search students by semester
     public List<Student> searchBySemester(int semester) {
+        long start = metrics.start();
+        List<Student> results = toStudents(semesterIndex().find(semester));
+        metrics.record(StudentMetrics.Operation.SEARCH_BY_SEMESTER, start, true);
+        return results;
+    }
+    
+    // Search students taking a subject (exact name); compares dictionary codes, not strings
+    public List<Student> searchBySubject(String subject) {
         List<Student> results = new ArrayList<>();
-        
+        int code = StringDictionary.SHARED.find(subject);
+        if (code <= 0) {
+            return results;
+        }
         for (Student student : students.values()) {
-            if (student.getSemester() == semester) {
+            if (student.hasSubjectCode(code)) {
                 results.add(student);
             }
         }
         return results;
     }
     
+    // Run a query; criteria backed by an index that has already been built narrow the candidates
+    // first, and every candidate is then checked against the full query
+    public List<Student> query(StudentQuery query) {
+        long start = metrics.start();
+        List<Student> results = runQuery(query);
+        metrics.record(StudentMetrics.Operation.QUERY, start, true);
+        return results;
+    }
+    
+    // Run the query over a snapshot instead of the live students, without views or indexes; safe from any thread
+    public List<Student> query(StudentQuery query, StudentVersions.Snapshot snapshot) {
+        long start = metrics.start();
+        List<Student> results = query.run(snapshot.toList().toArray(new Student[0]));
+        metrics.record(StudentMetrics.Operation.QUERY, start, true);
+        return results;
+    }
+    
+    // True if query() would filter every student, with no built view or index to narrow them down
+    boolean scansAll(StudentQuery query) {
+        if (!query.hasCriteria() && query.getSortKey() != null && builtView(query.getSortKey()) != null) {
+            return false;
+        }
+        return (query.getName() == null || nameIndex == null)
+            && (query.getCourse() == null || courseIndex == null)
+            && (query.getSemester() == null || semesterIndex == null)
+            && (columns == null || (query.getCourse() == null && query.getSemester() == null && !query.hasGpaRange()));
+    }
+    
+    private List<Student> runQuery(StudentQuery query) {
+        if (!query.hasCriteria() && query.getSortKey() != null) {
+            SortedStudentView<?> view = builtView(query.getSortKey());
+            if (view != null) {
+                return view.page(query.getOffset(), query.getLimit());
+            }
+        }
+        
+        int[] candidates = null;    // sorted student IDs, or null for every student
+        if (query.getName() != null && nameIndex != null) {
+            candidates = nameIndex.findCandidates(query.getName());
+        }
+        if (query.getCourse() != null && courseIndex != null) {
+            candidates = narrow(candidates, courseIndex.findContaining(query.getCourse()));
+        }
+        if (query.getSemester() != null && semesterIndex != null) {
+            candidates = narrow(candidates, semesterIndex.find(query.getSemester()));
+        }
+        if (columns != null && (query.getCourse() != null || query.getSemester() != null || query.hasGpaRange())) {
+            int[] ids = columns.filter(query.getCourse(), query.getSemester(), query.getMinGpa(), query.getMaxGpa());
+            Arrays.sort(ids);
+            candidates = narrow(candidates, ids);
+        }
+        
+        Student[] pool;
+        if (candidates == null) {
+            pool = students.values().toArray(new Student[0]);
+        } else {
+            pool = new Student[candidates.length];
+            for (int i = 0; i < candidates.length; i++) {
+                pool[i] = students.get(candidates[i]);
+            }
+        }
+        return query.run(pool);
+    }
+    
+    // Search students whose GPA lies in the given range, inclusive
+    public List<Student> searchByGpaRange(double minGpa, double maxGpa) {
+        return toStudents(columns().filter(null, null, minGpa, maxGpa));
+    }
+    
+    // Search students matching all of: course (substring), semester and GPA range; null course or semester matches any
+    public List<Student> filterStudents(String course, Integer semester, double minGpa, double maxGpa) {
+        return toStudents(columns().filter(course, semester, minGpa, maxGpa));
+    }
+    
+    // Search students who enrolled between the two dates, inclusive
+    public List<Student> searchByEnrollmentDate(LocalDate from, LocalDate to) {
+        return toStudents(columns().findByEnrollmentDate(from, to));
+    }
+    
+    // GPA aggregates for a course (substring) and/or semester; null matches any
+    public StudentColumns.GpaSummary getGpaSummary(String course, Integer semester) {
+        return columns().summarizeGpa(course, semester);
+    }
+    
     // Get all students
     public List<Student> getAllStudents() {
         return new ArrayList<>(students.values());
     }
     
+    // Read-only live view of all students, for streaming over them without copying
+    public Collection<Student> getStudentsView() {
+        return Collections.unmodifiableCollection(students.values());
+    }
+    
     // Get students sorted by name
     public List<Student> getStudentsSortedByName() {
-        List<Student> sortedList = getAllStudents();
-        sortedList.sort((s1, s2) -> s1.getFullName().compareToIgnoreCase(s2.getFullName()));
-        return sortedList;
+        return nameView().toList();
+    }
+    
+    // Get one page of the students sorted by name
+    public List<Student> getStudentsSortedByName(int offset, int limit) {
+        return nameView().page(offset, limit);
     }
     
-    // Get students sorted by GPA
+    // Get students sorted by GPA (highest first)
     public List<Student> getStudentsSortedByGPA() {
-        List<Student> sortedList = getAllStudents();
-        sortedList.sort((s1, s2) -> Double.compare(s2.getGpa(), s1.getGpa())); // Descending order
-        return sortedList;
+        return gpaView().toList();
+    }
+    
+    // Get one page of the students sorted by GPA (highest first)
+    public List<Student> getStudentsSortedByGPA(int offset, int limit) {
+        return gpaView().page(offset, limit);
+    }
+    
+    // Get the k students with the highest GPA
+    public List<Student> getTopStudentsByGPA(int k) {
+        return gpaView().page(0, k);
     }
     
     // Get students sorted by ID
     public List<Student> getStudentsSortedById() {
-        List<Student> sortedList = getAllStudents();
-        sortedList.sort((s1, s2) -> Integer.compare(s1.getStudentId(), s2.getStudentId()));
-        return sortedList;
+        return idView().toList();
+    }
+    
+    // Get one page of the students sorted by ID
+    public List<Student> getStudentsSortedById(int offset, int limit) {
+        return idView().page(offset, limit);
+    }
+    
+    // Detail text of a student, or null if there is no such student
+    public String renderStudent(int studentId) {
+        Student student = students.get(studentId);
+        return student == null ? null : renderCache.detail(student);
+    }
+    
+    // One listing row per student for a page of getStudentPage, served pre-rendered when unchanged
+    public StudentRenderCache.Listing renderStudents(StudentQuery.SortKey sortKey, String cursor, int limit) {
+        return renderCache.listing(sortKey, cursor, limit, () -> getStudentPage(sortKey, cursor, limit));
+    }
+    
+    // Up to limit students in the given order, after the cursor returned with the previous page (null to start)
+    // Only the returned entries are walked, and a cursor stays valid while students are added and removed
+    public StudentPage getStudentPage(StudentQuery.SortKey sortKey, String cursor, int limit) {
+        long start = metrics.start();
+        boolean ok = false;
+        try {
+            StudentPage page = pageAfter(sortKey, cursor, limit);
+            ok = true;
+            return page;
+        } finally {
+            metrics.record(StudentMetrics.Operation.PAGE, start, ok);
+        }
+    }
+    
+    private StudentPage pageAfter(StudentQuery.SortKey sortKey, String cursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Invalid limit: " + limit);
+        }
+        String after = viewCursor(sortKey, cursor);
+        StudentPage page;
+        switch (sortKey) {
+            case NAME:
+                page = nameView().pageAfter(after, limit);
+                break;
+            case GPA:
+                page = gpaView().pageAfter(after, limit);
+                break;
+            default:
+                page = idView().pageAfter(after, limit);
+        }
+        if (page.hasMore()) {
+            page = new StudentPage(page.getStudents(), encodeCursor(sortKey, page.getNextCursor()));
+        }
+        return page;
+    }
+    
+    public StudentRenderCache getRenderCache() {
+        return renderCache;
+    }
+    
+    public StudentMetrics getMetrics() {
+        return metrics;
+    }
+    
+    // Pin a consistent view of all students as of now; it can be read from any thread while changes
+    // continue, and must be closed. The first call copies every student
+    public StudentVersions.Snapshot snapshot() {
+        if (versions == null) {
+            versions = new StudentVersions(students.values());
+        }
+        return versions.snapshot();
+    }
+    
+    // Find a student by email (case-insensitive)
+    public Student findByEmail(String email) {
+        Integer studentId = emailIndex().get(emailKey(email));
+        return studentId == null ? null : students.get(studentId);
+    }
+    
+    // Cursors handed out are URL-safe Base64 of "<order>|<view cursor>", so they cannot be mixed up between orders
+    static String encodeCursor(StudentQuery.SortKey sortKey, String viewCursor) {
+        byte[] bytes = (sortKey + "|" + viewCursor).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+    
+    static String viewCursor(StudentQuery.SortKey sortKey, String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        String text;
+        try {
+            text = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String prefix = sortKey + "|";
+        if (!text.startsWith(prefix)) {
+            throw new IllegalArgumentException("Cursor is for a different order");
+        }
+        return text.substring(prefix.length());
     }
     
     // Check if email exists
     private boolean isEmailExists(String email) {
-        for (Student student : students.values()) {
-            if (student.getEmail().equalsIgnoreCase(email)) {
-                return true;
+        return emailIndex().containsKey(emailKey(email));
+    }
+    
+    // The index is built lazily so that opening a mapped snapshot does not decode every student
+    private Map<String, Integer> emailIndex() {
+        if (emailIndex == null) {
+            emailIndex = new HashMap<>(Math.max(16, students.size() * 4 / 3 + 1));
+            if (students instanceof MappedStudentMap) {
+                // Read just the emails, so the first add does not decode and keep every mapped student
+                ((MappedStudentMap) students).forEachEmail((email, studentId) -> emailIndex.put(emailKey(email), studentId));
+            } else {
+                for (Student student : students.values()) {
+                    emailIndex.put(emailKey(student.getEmail()), student.getStudentId());
+                }
             }
         }
-        return false;
+        return emailIndex;
+    }
+    
+    private NameIndex nameIndex() {
+        if (nameIndex == null) {
+            nameIndex = new NameIndex();
+            for (Student student : students.values()) {
+                nameIndex.add(student.getStudentId(), student.getFullName());
+            }
+        }
+        return nameIndex;
+    }
+    
+    private CourseIndex courseIndex() {
+        if (courseIndex == null) {
+            courseIndex = new CourseIndex();
+            for (Student student : students.values()) {
+                courseIndex.add(student.getStudentId(), student.getCourse());
+            }
+        }
+        return courseIndex;
+    }
+    
+    private SemesterIndex semesterIndex() {
+        if (semesterIndex == null) {
+            semesterIndex = new SemesterIndex();
+            for (Student student : students.values()) {
+                semesterIndex.add(student.getStudentId(), student.getSemester());
+            }
+        }
+        return semesterIndex;
+    }
+    
+    private SortedStudentView<SortedStudentView.NameKey> nameView() {
+        if (nameView == null) {
+            nameView = fill(SortedStudentView.byName());
+        }
+        return nameView;
+    }
+    
+    private SortedStudentView<SortedStudentView.GpaKey> gpaView() {
+        if (gpaView == null) {
+            gpaView = fill(SortedStudentView.byGpa());
+        }
+        return gpaView;
+    }
+    
+    private SortedStudentView<Integer> idView() {
+        if (idView == null) {
+            idView = fill(SortedStudentView.byId());
+        }
+        return idView;
+    }
+    
+    private StudentStatistics statistics() {
+        if (statistics == null) {
+            statistics = new StudentStatistics();
+            for (Student student : students.values()) {
+                statistics.add(student);
+            }
+        }
+        return statistics;
+    }
+    
+    private StudentColumns columns() {
+        if (columns == null) {
+            columns = new StudentColumns(students.size());
+            for (Student student : students.values()) {
+                columns.add(student);
+            }
+        }
+        return columns;
+    }
+    
+    private SortedStudentView<?> builtView(StudentQuery.SortKey sortKey) {
+        switch (sortKey) {
+            case NAME: return nameView;
+            case GPA: return gpaView;
+            default: return idView;
+        }
+    }
+    
+    private static int[] narrow(int[] candidates, int[] sortedIds) {
+        return candidates == null ? sortedIds : PostingList.intersect(candidates, sortedIds);
+    }
+    
+    private <K extends Comparable<K>> SortedStudentView<K> fill(SortedStudentView<K> view) {
+        for (Student student : students.values()) {
+            view.add(student);
+        }
+        return view;
+    }
+    
+    // Add a student to every secondary index (and the statistics) that has been built, and publish it to snapshots
+    private void indexStudent(Student student) {
+        renderCache.invalidate(student.getStudentId());
+        if (versions != null) {
+            versions.publish(student);
+        }
+        if (nameIndex != null) {
+            nameIndex.add(student.getStudentId(), student.getFullName());
+        }
+        if (courseIndex != null) {
+            courseIndex.add(student.getStudentId(), student.getCourse());
+        }
+        if (semesterIndex != null) {
+            semesterIndex.add(student.getStudentId(), student.getSemester());
+        }
+        if (nameView != null) {
+            nameView.add(student);
+        }
+        if (gpaView != null) {
+            gpaView.add(student);
+        }
+        if (idView != null) {
+            idView.add(student);
+        }
+        if (statistics != null) {
+            statistics.add(student);
+        }
+        if (columns != null) {
+            columns.add(student);
+        }
+    }
+    
+    // Remove a student from every secondary index (and the statistics) that has been built, using its current field values
+    private void unindexStudent(Student student) {
+        renderCache.invalidate(student.getStudentId());
+        if (nameIndex != null) {
+            nameIndex.remove(student.getStudentId());
+        }
+        if (courseIndex != null) {
+            courseIndex.remove(student.getStudentId(), student.getCourse());
+        }
+        if (semesterIndex != null) {
+            semesterIndex.remove(student.getStudentId(), student.getSemester());
+        }
+        if (nameView != null) {
+            nameView.remove(student);
+        }
+        if (gpaView != null) {
+            gpaView.remove(student);
+        }
+        if (idView != null) {
+            idView.remove(student);
+        }
+        if (statistics != null) {
+            statistics.remove(student);
+        }
+        if (columns != null) {
+            columns.remove(student.getStudentId());
+        }
+    }
+    
+    private List<Student> toStudents(int[] studentIds) {
+        List<Student> results = new ArrayList<>(studentIds.length);
+        for (int studentId : studentIds) {
+            results.add(students.get(studentId));
+        }
+        return results;
+    }
+    
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
     }
     
     // Get total number of students
@@ -164,69 +706,109 @@ public class StudentDatabase {
         return students.size();
     }
     
-    // Get statistics
-    public void displayStatistics() {
-        if (students.isEmpty()) {
-            System.out.println("No students in database.");
-            return;
+    public int getNextStudentId() {
+        return nextStudentId;
+    }
+    
+    // Get a consistent copy of the running statistics
+    public StudentStatistics.Snapshot getStatistics() {
+        return statistics().snapshot();
+    }
+    
+    // Completes once every change made so far is on disk
+    public CompletableFuture<Void> flush() {
+        return persistence.flush();
+    }
+    
+    // Flush the journal and release the log file
+    @Override
+    public void close() {
+        persistence.close();
+        if (ownsMetrics) {
+            metrics.close();
         }
-        
-        System.out.println("\n=== DATABASE STATISTICS ===");
-        System.out.println("Total Students: " + getTotalStudents());
-        
-        // Course distribution
-        Map<String, Integer> courseCount = new HashMap<>();
-        double totalGPA = 0;
-        int studentsWithGPA = 0;
-        
-        for (Student student : students.values()) {
-            String course = student.getCourse();
-            courseCount.put(course, courseCount.getOrDefault(course, 0) + 1);
-            
-            if (student.getGpa() > 0) {
-                totalGPA += student.getGpa();
-                studentsWithGPA++;
+    }
+    
+    // Fold the journal into a fresh snapshot
+    public void compact() {
+        long start = metrics.start();
+        boolean saved = SnapshotFile.save(dataFile, nextStudentId, students.values(), metrics);
+        metrics.record(StudentMetrics.Operation.SAVE, start, saved);
+        if (saved) {
+            try {
+                persistence.reset();
+            } catch (IOException e) {
+                System.out.println("Error truncating journal: " + e.getMessage());
             }
         }
-        
-        System.out.println("\nCourse Distribution:");
-        for (Map.Entry<String, Integer> entry : courseCount.entrySet()) {
-            System.out.println("  " + entry.getKey() + ": " + entry.getValue() + " students");
-        }
-        
-        if (studentsWithGPA > 0) {
-            double averageGPA = totalGPA / studentsWithGPA;
-            System.out.println("\nAverage GPA: " + String.format("%.2f", averageGPA));
+    }
+    
+    // Append the current state of a student to the journal
+    private void journalPut(Student student) {
+        try {
+            persistence.appendPut(student);
+        } catch (IOException e) {
+            System.out.println("Error writing journal: " + e.getMessage());
         }
-        
-        System.out.println("Next Student ID: " + nextStudentId);
+        compactIfNeeded();
     }
     
-    // Save data to file
-    private void saveToFile() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(DATA_FILE))) {
-            oos.writeObject(students);
-            oos.writeInt(nextStudentId);
+    // Append a removal to the journal
+    private void journalDelete(int studentId) {
+        try {
+            persistence.appendDelete(studentId);
         } catch (IOException e) {
-            System.out.println("Error saving data: " + e.getMessage());
+            System.out.println("Error writing journal: " + e.getMessage());
         }
+        compactIfNeeded();
     }
     
-    // Load data from file
-    @SuppressWarnings("unchecked")
-    private void loadFromFile() {
-        File file = new File(DATA_FILE);
-        if (!file.exists()) {
-            return; // No data file exists yet
+    private void compactIfNeeded() {
+        if (persistence.needsCompaction()) {
+            compact();
+        }
+    }
+    
+    // Load the snapshot from file, then replay the journal tail on top of it; false if anything could not be read
+    private boolean loadFromFile(StudentJournal journal) {
+        boolean ok = true;
+        File file = new File(dataFile);
+        if (file.exists()) {
+            try {
+                loadSnapshot(file);
+            } catch (IOException e) {
+                System.out.println("Error loading data: " + e.getMessage());
+                ok = false;
+                students = new IntObjectMap<>();
+                nextStudentId = 1001;
+            }
         }
         
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(DATA_FILE))) {
-            students = (Map<Integer, Student>) ois.readObject();
-            nextStudentId = ois.readInt();
-        } catch (IOException | ClassNotFoundException e) {
-            System.out.println("Error loading data: " + e.getMessage());
-            students = new HashMap<>();
-            nextStudentId = 1001;
+        try {
+            journal.replay(student -> {
+                students.put(student.getStudentId(), student);
+                nextStudentId = Math.max(nextStudentId, student.getStudentId() + 1);
+            }, studentId -> students.remove(studentId));
+        } catch (IOException e) {
+            System.out.println("Error replaying journal: " + e.getMessage());
+            ok = false;
         }
+        return ok;
+    }
+    
+    // Map the snapshot so students are decoded on first access; fall back to reading it all if it cannot be mapped
+    private void loadSnapshot(File file) throws IOException {
+        try {
+            MappedStudentStore store = MappedStudentStore.open(file);
+            students = new MappedStudentMap(store);
+            nextStudentId = store.getNextStudentId();
+            return;
+        } catch (IOException e) {
+            System.out.println("Could not map data file, loading it fully: " + e.getMessage());
+        }
+        
+        IntObjectMap<Student> loaded = new IntObjectMap<>();
+        nextStudentId = SnapshotFile.load(file, student -> loaded.put(student.getStudentId(), student));
+        students = loaded;
     }
-}
+}
\ No newline at end of file
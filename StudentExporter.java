@@ -0,0 +1,187 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * StudentExporter class streaming the student table to CSV or JSON Lines
+ * Records are written one at a time straight from the database (or a snapshot of it) to a
+ * buffered writer, so memory use does not grow with the number of students. CSV output uses
+ * the column names and date format that StudentCsvImporter reads back
+ */
+public class StudentExporter {
+    public enum Format { CSV, NDJSON }
+    
+    private static final DateTimeFormatter CSV_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final String CSV_HEADER =
+        "studentId,firstName,lastName,email,phone,dateOfBirth,address,course,semester,gpa,subjects,enrollmentDate";
+    
+    private final Iterable<Student> students;
+    private String course;           // substring of the course name, case-insensitive
+    private Integer semester;
+    private double minGpa = Double.NEGATIVE_INFINITY;
+    private double maxGpa = Double.POSITIVE_INFINITY;
+    private boolean gzip;
+    
+    public StudentExporter(StudentDatabase database) {
+        this(database.getStudentsView());
+    }
+    
+    // Export from a snapshot, so the database can keep changing while the file is written
+    public StudentExporter(StudentVersions.Snapshot snapshot) {
+        this((Iterable<Student>) snapshot);
+    }
+    
+    private StudentExporter(Iterable<Student> students) {
+        this.students = students;
+    }
+    
+    // Filters and options
+    public void setCourse(String course) { this.course = course == null ? null : course.toLowerCase(Locale.ROOT); }
+    public void setSemester(Integer semester) { this.semester = semester; }
+    public void setGpaRange(double minGpa, double maxGpa) { this.minGpa = minGpa; this.maxGpa = maxGpa; }
+    public void setGzip(boolean gzip) { this.gzip = gzip; }
+    
+    // Write every matching student to the file; returns the number of records written
+    public long export(Path file, Format format) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        if (gzip) {
+            out = new GZIPOutputStream(out, 64 * 1024);
+        }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024)) {
+            return export(writer, format);
+        }
+    }
+    
+    public long export(Writer writer, Format format) throws IOException {
+        StringBuilder line = new StringBuilder(256);
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        
+        long written = 0;
+        for (Student student : students) {
+            if (!matches(student)) {
+                continue;
+            }
+            line.setLength(0);
+            if (format == Format.CSV) {
+                appendCsv(line, student);
+            } else {
+                appendJson(line, student);
+            }
+            line.append('\n');
+            writer.append(line);
+            written++;
+        }
+        return written;
+    }
+    
+    private boolean matches(Student student) {
+        if (course != null && !student.getCourse().toLowerCase(Locale.ROOT).contains(course)) {
+            return false;
+        }
+        if (semester != null && student.getSemester() != semester) {
+            return false;
+        }
+        return student.getGpa() >= minGpa && student.getGpa() <= maxGpa;
+    }
+    
+    private static void appendCsv(StringBuilder line, Student student) {
+        line.append(student.getStudentId()).append(',');
+        csvField(line, student.getFirstName()).append(',');
+        csvField(line, student.getLastName()).append(',');
+        csvField(line, student.getEmail()).append(',');
+        csvField(line, student.getPhoneNumber()).append(',');
+        CSV_DATE.formatTo(student.getDateOfBirth(), line);
+        line.append(',');
+        csvField(line, student.getAddress()).append(',');
+        csvField(line, student.getCourse()).append(',');
+        line.append(student.getSemester()).append(',');
+        line.append(student.getGpa()).append(',');
+        csvField(line, String.join(";", student.getSubjects())).append(',');
+        CSV_DATE.formatTo(student.getEnrollmentDate(), line);
+    }
+    
+    private static StringBuilder csvField(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return line.append(value);
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+    
+    static void appendJson(StringBuilder line, Student student) {
+        line.append("{\"studentId\":").append(student.getStudentId());
+        jsonField(line, "firstName", student.getFirstName());
+        jsonField(line, "lastName", student.getLastName());
+        jsonField(line, "email", student.getEmail());
+        jsonField(line, "phone", student.getPhoneNumber());
+        jsonField(line, "dateOfBirth", student.getDateOfBirth().toString());
+        jsonField(line, "address", student.getAddress());
+        jsonField(line, "course", student.getCourse());
+        line.append(",\"semester\":").append(student.getSemester());
+        line.append(",\"gpa\":").append(student.getGpa());
+        line.append(",\"subjects\":[");
+        boolean first = true;
+        for (String subject : student.getSubjects()) {
+            if (!first) {
+                line.append(',');
+            }
+            jsonString(line, subject);
+            first = false;
+        }
+        line.append(']');
+        jsonField(line, "enrollmentDate", student.getEnrollmentDate().toString());
+        line.append('}');
+    }
+    
+    private static void jsonField(StringBuilder line, String name, String value) {
+        line.append(",\"").append(name).append("\":");
+        jsonString(line, value);
+    }
+    
+    static void jsonString(StringBuilder line, String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': line.append("\\\""); break;
+                case '\\': line.append("\\\\"); break;
+                case '\n': line.append("\\n"); break;
+                case '\r': line.append("\\r"); break;
+                case '\t': line.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+}
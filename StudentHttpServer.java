@@ -0,0 +1,469 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * StudentHttpServer class serving a StudentStore as JSON over HTTP with the JDK's built-in server
+ * Endpoints:
+ *   GET    /students?sort=id|name|gpa&cursor=&limit=    keyset pages; pass back nextCursor for the next one
+ *   GET    /students?name=&course=&semester=&minGpa=&maxGpa=&sort=&offset=&limit=    filtered search
+ *   POST   /students            create from a JSON object, dateOfBirth as yyyy-MM-dd
+ *   GET    /students/{id}
+ *   PUT    /students/{id}       update; fields left out or null keep their current value
+ *   DELETE /students/{id}
+ *   GET    /statistics
+ * Each request runs on its own virtual thread when the JVM has them (Java 21+), otherwise on a
+ * fixed pool. Responses are encoded straight into one StringBuilder and sent with a fixed length.
+ * main() serves a StudentService, or with -Dstudent.store=concurrent a ConcurrentStudentService so
+ * requests are not serialized on one lock
+ */
+public class StudentHttpServer {
+    public static final String STORE_PROPERTY = "student.store";
+    private static final int DEFAULT_LIMIT = 100;       // page size when a listing gives no limit
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    
+    static {
+        // The JDK server writes headers and body separately; without TCP_NODELAY, delayed ACKs add ~40ms per response
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+    
+    private final StudentStore service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    
+    public StudentHttpServer(StudentStore service, int port) throws IOException {
+        this.service = service;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/students", this::handleStudents);
+        server.createContext("/statistics", this::handleStatistics);
+    }
+    
+    public void start() {
+        server.start();
+    }
+    
+    // Stop accepting requests, give running ones a second to finish
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+    
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    // A virtual thread per request where available; looked up reflectively so the code still builds on Java 17
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors() * 4));
+        }
+    }
+    
+    private void handleStudents(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if (path.equals("/students") || path.equals("/students/")) {
+                if (method.equals("GET")) {
+                    listStudents(exchange);
+                } else if (method.equals("POST")) {
+                    createStudent(exchange);
+                } else {
+                    sendError(exchange, 405, "Method not allowed");
+                }
+                return;
+            }
+            if (!path.startsWith("/students/")) {
+                sendError(exchange, 404, "Not found");
+                return;
+            }
+            int studentId;
+            try {
+                studentId = Integer.parseInt(path.substring("/students/".length()));
+            } catch (NumberFormatException e) {
+                sendError(exchange, 404, "Not found");
+                return;
+            }
+            switch (method) {
+                case "GET":
+                    sendStudent(exchange, 200, service.getStudent(studentId));
+                    break;
+                case "PUT":
+                    updateStudent(exchange, studentId);
+                    break;
+                case "DELETE":
+                    sendStudent(exchange, 200, service.deleteStudent(studentId));
+                    break;
+                default:
+                    sendError(exchange, 405, "Method not allowed");
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            internalError(exchange, e);
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    private void handleStatistics(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+            StudentStatistics.Snapshot stats = service.getStatistics().getValue();
+            StringBuilder json = new StringBuilder(256);
+            json.append("{\"totalStudents\":").append(stats.getTotalStudents());
+            json.append(",\"courses\":{");
+            boolean first = true;
+            for (Map.Entry<String, Integer> entry : stats.getCourseCounts().entrySet()) {
+                if (!first) {
+                    json.append(',');
+                }
+                StudentExporter.jsonString(json, entry.getKey());
+                json.append(':').append(entry.getValue());
+                first = false;
+            }
+            json.append("},\"semesters\":{");
+            first = true;
+            for (Map.Entry<Integer, Integer> entry : stats.getSemesterCounts().entrySet()) {
+                if (!first) {
+                    json.append(',');
+                }
+                json.append('"').append(entry.getKey()).append("\":").append(entry.getValue());
+                first = false;
+            }
+            json.append('}');
+            if (stats.getGpaCount() > 0) {
+                json.append(",\"averageGpa\":").append(stats.getAverageGpa());
+                json.append(",\"minGpa\":").append(stats.getMinGpa());
+                json.append(",\"maxGpa\":").append(stats.getMaxGpa());
+                json.append(",\"medianGpa\":").append(stats.getGpaPercentile(0.5));
+            }
+            json.append('}');
+            send(exchange, 200, json);
+        } catch (RuntimeException e) {
+            internalError(exchange, e);
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    private void listStudents(HttpExchange exchange) throws IOException {
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        StudentQuery query = new StudentQuery();
+        query.setName(params.get("name"));
+        query.setCourse(params.get("course"));
+        if (params.containsKey("semester")) {
+            query.setSemester(parseInt(params.get("semester"), "semester"));
+        }
+        if (params.containsKey("minGpa") || params.containsKey("maxGpa")) {
+            query.setGpaRange(parseDouble(params.getOrDefault("minGpa", "-Infinity"), "minGpa"),
+                              parseDouble(params.getOrDefault("maxGpa", "Infinity"), "maxGpa"));
+        }
+        String sort = params.get("sort");
+        if (sort != null) {
+            try {
+                query.setSortKey(StudentQuery.SortKey.valueOf(sort.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid sort: " + sort);
+            }
+        }
+        int limit = params.containsKey("limit") ? parseInt(params.get("limit"), "limit") : DEFAULT_LIMIT;
+        if (!query.hasCriteria() && !params.containsKey("offset")) {
+            sendPage(exchange, query.getSortKey() == null ? StudentQuery.SortKey.ID : query.getSortKey(),
+                     params.get("cursor"), limit);
+            return;
+        }
+        if (params.containsKey("cursor")) {
+            throw new IllegalArgumentException("cursor cannot be combined with filters or offset");
+        }
+        int offset = params.containsKey("offset") ? parseInt(params.get("offset"), "offset") : 0;
+        query.setOffset(offset);
+        query.setLimit(limit);
+        
+        List<Student> students = service.query(query).getValue();
+        StringBuilder json = new StringBuilder(64 + students.size() * 320);
+        json.append("{\"offset\":").append(offset).append(",\"count\":").append(students.size());
+        json.append(",\"students\":[");
+        for (int i = 0; i < students.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            StudentExporter.appendJson(json, students.get(i));
+        }
+        json.append("]}");
+        send(exchange, 200, json);
+    }
+    
+    private void sendPage(HttpExchange exchange, StudentQuery.SortKey sortKey, String cursor, int limit) throws IOException {
+        StudentService.Result<StudentPage> result = service.listStudents(sortKey, cursor, limit);
+        if (!result.isOk()) {
+            sendError(exchange, statusCode(result.getStatus()), result.getMessage());
+            return;
+        }
+        List<Student> students = result.getValue().getStudents();
+        StringBuilder json = new StringBuilder(64 + students.size() * 320);
+        json.append("{\"count\":").append(students.size()).append(",\"students\":[");
+        for (int i = 0; i < students.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            StudentExporter.appendJson(json, students.get(i));
+        }
+        json.append("],\"nextCursor\":");
+        StudentExporter.jsonString(json, result.getValue().getNextCursor());
+        json.append('}');
+        send(exchange, 200, json);
+    }
+    
+    private void createStudent(HttpExchange exchange) throws IOException {
+        Map<String, String> body = parseObject(readBody(exchange));
+        StudentService.Result<Student> result = service.addStudent(
+            body.get("firstName"), body.get("lastName"), body.get("email"), body.get("phone"),
+            parseDate(body.get("dateOfBirth")), body.get("address"), body.get("course"),
+            body.containsKey("semester") ? parseInt(body.get("semester"), "semester") : 0);
+        sendStudent(exchange, 201, result);
+    }
+    
+    private void updateStudent(HttpExchange exchange, int studentId) throws IOException {
+        Map<String, String> body = parseObject(readBody(exchange));
+        String semester = body.get("semester");
+        String gpa = body.get("gpa");
+        StudentService.Result<Student> result = service.updateStudentFields(studentId,
+            body.get("firstName"), body.get("lastName"), body.get("email"), body.get("phone"),
+            body.get("address"), body.get("course"),
+            semester == null ? null : parseInt(semester, "semester"),
+            gpa == null ? null : parseDouble(gpa, "gpa"));
+        sendStudent(exchange, 200, result);
+    }
+    
+    private static void sendStudent(HttpExchange exchange, int okStatus, StudentService.Result<Student> result) throws IOException {
+        if (!result.isOk()) {
+            sendError(exchange, statusCode(result.getStatus()), result.getMessage());
+            return;
+        }
+        StringBuilder json = new StringBuilder(320);
+        StudentExporter.appendJson(json, result.getValue());
+        send(exchange, okStatus, json);
+    }
+    
+    private static int statusCode(StudentService.Status status) {
+        switch (status) {
+            case OK: return 200;
+            case NOT_FOUND: return 404;
+            case INVALID_INPUT: return 400;
+            case DUPLICATE_EMAIL:
+            case REJECTED: return 409;
+            default: return 500;
+        }
+    }
+    
+    // Report an unexpected failure as a 500 rather than dropping the connection without a response
+    private static void internalError(HttpExchange exchange, RuntimeException e) throws IOException {
+        System.out.println("Error handling " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + ": " + e);
+        if (exchange.getResponseCode() == -1) {
+            sendError(exchange, 500, "Internal server error");
+        }
+    }
+    
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder(64);
+        json.append("{\"error\":");
+        StudentExporter.jsonString(json, message);
+        json.append('}');
+        send(exchange, status, json);
+    }
+    
+    private static void send(HttpExchange exchange, int status, CharSequence json) throws IOException {
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+    
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body too large");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+    
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            params.put(name, value);
+        }
+        return params;
+    }
+    
+    // Parse a flat JSON object of string, number, boolean or null values; every value is returned as text
+    static Map<String, String> parseObject(String text) {
+        Map<String, String> values = new HashMap<>();
+        int[] pos = { skipSpace(text, 0) };
+        expect(text, pos, '{');
+        if (peek(text, pos) == '}') {
+            pos[0]++;
+            return values;
+        }
+        while (true) {
+            String name = readString(text, pos);
+            expect(text, pos, ':');
+            char c = peek(text, pos);
+            String value;
+            if (c == '"') {
+                value = readString(text, pos);
+            } else {
+                int start = pos[0];
+                while (pos[0] < text.length() && ",} \t\r\n".indexOf(text.charAt(pos[0])) < 0) {
+                    pos[0]++;
+                }
+                value = text.substring(start, pos[0]);
+                if (value.isEmpty() || value.charAt(0) == '{' || value.charAt(0) == '[') {
+                    throw new IllegalArgumentException("Unsupported value for " + name);
+                }
+                if (value.equals("null")) {
+                    value = null;
+                }
+            }
+            values.put(name, value);
+            char next = peek(text, pos);
+            pos[0]++;
+            if (next == '}') {
+                return values;
+            }
+            if (next != ',') {
+                throw new IllegalArgumentException("Malformed JSON at offset " + (pos[0] - 1));
+            }
+        }
+    }
+    
+    private static String readString(String text, int[] pos) {
+        expect(text, pos, '"');
+        StringBuilder value = new StringBuilder();
+        while (pos[0] < text.length()) {
+            char c = text.charAt(pos[0]++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (pos[0] >= text.length()) {
+                break;
+            }
+            char escaped = text.charAt(pos[0]++);
+            switch (escaped) {
+                case 'n': value.append('\n'); break;
+                case 'r': value.append('\r'); break;
+                case 't': value.append('\t'); break;
+                case 'b': value.append('\b'); break;
+                case 'f': value.append('\f'); break;
+                case 'u':
+                    if (pos[0] + 4 > text.length()) {
+                        throw new IllegalArgumentException("Malformed JSON escape");
+                    }
+                    value.append((char) Integer.parseInt(text.substring(pos[0], pos[0] + 4), 16));
+                    pos[0] += 4;
+                    break;
+                default: value.append(escaped);
+            }
+        }
+        throw new IllegalArgumentException("Unterminated JSON string");
+    }
+    
+    private static void expect(String text, int[] pos, char c) {
+        if (peek(text, pos) != c) {
+            throw new IllegalArgumentException("Malformed JSON: expected '" + c + "' at offset " + pos[0]);
+        }
+        pos[0]++;
+    }
+    
+    // Next non-space character, leaving pos on it; 0 at the end of the text
+    private static char peek(String text, int[] pos) {
+        pos[0] = skipSpace(text, pos[0]);
+        return pos[0] < text.length() ? text.charAt(pos[0]) : 0;
+    }
+    
+    private static int skipSpace(String text, int pos) {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+    
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+    
+    private static double parseDouble(String value, String name) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+    
+    private static LocalDate parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid dateOfBirth: " + value);
+        }
+    }
+    
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        StudentStore service;
+        if ("concurrent".equals(System.getProperty(STORE_PROPERTY))) {
+            service = new ConcurrentStudentService(args.length > 1 ? new ConcurrentStudentDatabase(args[1])
+                                                                   : new ConcurrentStudentDatabase());
+        } else {
+            service = new StudentService(args.length > 1 ? new StudentDatabase(args[1]) : new StudentDatabase());
+        }
+        StudentHttpServer server = new StudentHttpServer(service, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            service.close();
+        }));
+        server.start();
+        System.out.println("Serving students on http://localhost:" + server.getPort() + "/students");
+    }
+}
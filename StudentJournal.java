@@ -0,0 +1,197 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * StudentJournal class implementing an append-only write-ahead log of student mutations
+ * Each mutation is appended as a small checksummed record; records are fsynced in groups
+ * and folded into the snapshot file once the log grows past the compaction threshold
+ */
+public class StudentJournal implements Closeable {
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+    private static final int GROUP_COMMIT_SIZE = 32;        // fsync after this many records
+    private static final long GROUP_COMMIT_MILLIS = 200;    // ... or once this much time has passed
+    static final int COMPACTION_THRESHOLD = 10000;          // records before folding into the snapshot
+    
+    private final File logFile;
+    private FileOutputStream fileOut;
+    private DataOutputStream out;
+    private int recordCount;
+    private int pendingSync;
+    private long lastSyncTime;
+    
+    public StudentJournal(String logFileName) {
+        this.logFile = new File(logFileName);
+    }
+    
+    // Replay every intact record of the log, dropping a torn tail left by a crash
+    public void replay(Consumer<Student> onPut, IntConsumer onDelete) throws IOException {
+        recordCount = 0;
+        if (!logFile.exists()) {
+            return;
+        }
+        
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)))) {
+            while (true) {
+                byte op;
+                byte[] payload;
+                try {
+                    op = in.readByte();
+                    int length = in.readInt();
+                    long checksum = in.readInt() & 0xFFFFFFFFL;
+                    if (length < 0 || length > logFile.length()) {
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    if (checksum(op, payload) != checksum) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                
+                ByteBuffer record = ByteBuffer.wrap(payload);
+                if (op == OP_PUT) {
+                    onPut.accept(StudentCodec.decode(record, 0));
+                } else if (op == OP_DELETE) {
+                    onDelete.accept(record.getInt());
+                } else {
+                    break;
+                }
+                validLength += 9 + payload.length;
+                recordCount++;
+            }
+        }
+        
+        if (validLength < logFile.length()) {
+            System.out.println("Warning: discarding incomplete journal tail.");
+            try (RandomAccessFile raf = new RandomAccessFile(logFile, "rw")) {
+                raf.setLength(validLength);
+            }
+        }
+    }
+    
+    // Record the full current state of a student (insert, update or subject change)
+    public void appendPut(Student student) throws IOException {
+        append(OP_PUT, putPayload(student));
+    }
+    
+    // Record the removal of a student
+    public void appendDelete(int studentId) throws IOException {
+        append(OP_DELETE, deletePayload(studentId));
+    }
+    
+    // Frame records exactly as they appear in the log, for callers that buffer them and write in batches
+    static void encodePut(ByteArrayOutputStream buffer, Student student) throws IOException {
+        frame(new DataOutputStream(buffer), OP_PUT, putPayload(student));
+    }
+    
+    static void encodeDelete(ByteArrayOutputStream buffer, int studentId) throws IOException {
+        frame(new DataOutputStream(buffer), OP_DELETE, deletePayload(studentId));
+    }
+    
+    // Append a batch of records framed by encodePut/encodeDelete; durable after the next sync()
+    public void write(ByteArrayOutputStream records, int count) throws IOException {
+        open();
+        records.writeTo(out);
+        recordCount += count;
+        pendingSync += count;
+    }
+    
+    public int getRecordCount() {
+        return recordCount;
+    }
+    
+    public boolean needsCompaction() {
+        return recordCount >= COMPACTION_THRESHOLD;
+    }
+    
+    // Force buffered records to disk
+    public void sync() throws IOException {
+        if (out == null) {
+            return;
+        }
+        out.flush();
+        fileOut.getFD().sync();
+        pendingSync = 0;
+        lastSyncTime = System.currentTimeMillis();
+    }
+    
+    // Empty the log after its contents have been folded into a snapshot
+    public void reset() throws IOException {
+        closeStream();
+        fileOut = new FileOutputStream(logFile, false);
+        out = new DataOutputStream(new BufferedOutputStream(fileOut));
+        fileOut.getFD().sync();
+        recordCount = 0;
+        pendingSync = 0;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        sync();
+        closeStream();
+    }
+    
+    private void append(byte op, byte[] payload) throws IOException {
+        open();
+        frame(out, op, payload);
+        recordCount++;
+        pendingSync++;
+        
+        // Hand every record to the OS right away, but only pay for fsync once per group
+        if (pendingSync >= GROUP_COMMIT_SIZE
+                || System.currentTimeMillis() - lastSyncTime >= GROUP_COMMIT_MILLIS) {
+            sync();
+        } else {
+            out.flush();
+        }
+    }
+    
+    private void open() throws IOException {
+        if (out == null) {
+            fileOut = new FileOutputStream(logFile, true);
+            out = new DataOutputStream(new BufferedOutputStream(fileOut));
+            lastSyncTime = System.currentTimeMillis();
+        }
+    }
+    
+    private static void frame(DataOutputStream out, byte op, byte[] payload) throws IOException {
+        out.writeByte(op);
+        out.writeInt(payload.length);
+        out.writeInt((int) checksum(op, payload));
+        out.write(payload);
+    }
+    
+    private static byte[] putPayload(Student student) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+        StudentCodec.encode(new DataOutputStream(buffer), student);
+        return buffer.toByteArray();
+    }
+    
+    private static byte[] deletePayload(int studentId) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(4);
+        new DataOutputStream(buffer).writeInt(studentId);
+        return buffer.toByteArray();
+    }
+    
+    private void closeStream() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+            fileOut = null;
+        }
+    }
+    
+    private static long checksum(byte op, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(op);
+        crc.update(payload);
+        return crc.getValue();
+    }
+}
@@ -1,20 +1,25 @@
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
  * Main class for Student Record Management System
  * Provides a console-based user interface for managing student records
+ * The console only reads input and prints results; every operation goes through StudentService
  */
 public class StudentManagementSystem {
-    private StudentDatabase database;
+    private static final int PAGE_SIZE = 50;    // rows per listing page
+    
+    private StudentService service;
     private Scanner scanner;
     private DateTimeFormatter dateFormatter;
     
     public StudentManagementSystem() {
-        this.database = new StudentDatabase();
+        this.service = new StudentService(new StudentDatabase());
         this.scanner = new Scanner(System.in);
         this.dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     }
@@ -51,13 +56,20 @@ public class StudentManagementSystem {
                     displaySortedStudents();
                     break;
                 case 8:
-                    database.displayStatistics();
+                    displayStatistics();
                     break;
                 case 9:
                     manageSubjects();
                     break;
+                case 10:
+                    importStudents();
+                    break;
+                case 11:
+                    exportStudents();
+                    break;
                 case 0:
                     System.out.println("Thank you for using Student Management System!");
+                    service.close();
                     System.exit(0);
                     break;
                 default:
@@ -80,6 +92,8 @@ public class StudentManagementSystem {
         System.out.println("7. Display Sorted Students");
         System.out.println("8. View Statistics");
         System.out.println("9. Manage Student Subjects");
+        System.out.println("10. Import Students from CSV");
+        System.out.println("11. Export Students");
         System.out.println("0. Exit");
         System.out.println("==================");
     }
@@ -110,17 +124,22 @@ public class StudentManagementSystem {
         
         int semester = getIntInput("Semester: ");
         
-        database.addStudent(firstName, lastName, email, phoneNumber, 
-                          dateOfBirth, address, course, semester);
+        StudentService.Result<Student> result = service.addStudent(firstName, lastName, email, phoneNumber, 
+                                                                  dateOfBirth, address, course, semester);
+        if (result.isOk()) {
+            System.out.println("Student added successfully with ID: " + result.getValue().getStudentId());
+        } else {
+            System.out.println("Error: " + result.getMessage());
+        }
     }
     
     private void viewStudent() {
         System.out.println("\n=== VIEW STUDENT DETAILS ===");
         int studentId = getIntInput("Enter Student ID: ");
         
-        Student student = database.getStudent(studentId);
-        if (student != null) {
-            System.out.println("\n" + student.toString());
+        StudentService.Result<String> result = service.renderStudent(studentId);
+        if (result.isOk()) {
+            System.out.println("\n" + result.getValue());
         } else {
             System.out.println("Student not found!");
         }
@@ -130,7 +149,7 @@ public class StudentManagementSystem {
         System.out.println("\n=== UPDATE STUDENT INFORMATION ===");
         int studentId = getIntInput("Enter Student ID to update: ");
         
-        Student student = database.getStudent(studentId);
+        Student student = service.getStudent(studentId).getValue();
         if (student == null) {
             System.out.println("Student not found!");
             return;
@@ -165,15 +184,20 @@ public class StudentManagementSystem {
         System.out.print("GPA [" + String.format("%.2f", student.getGpa()) + "]: ");
         double gpa = getDoubleOrDefault(student.getGpa());
         
-        database.updateStudent(studentId, firstName, lastName, email, phoneNumber, 
-                             address, course, semester, gpa);
+        StudentService.Result<Student> result = service.updateStudent(studentId, firstName, lastName, email, phoneNumber, 
+                                                                     address, course, semester, gpa);
+        if (result.isOk()) {
+            System.out.println("Student updated successfully!");
+        } else {
+            System.out.println("Error: " + result.getMessage());
+        }
     }
     
     private void deleteStudent() {
         System.out.println("\n=== DELETE STUDENT ===");
         int studentId = getIntInput("Enter Student ID to delete: ");
         
-        Student student = database.getStudent(studentId);
+        Student student = service.getStudent(studentId).getValue();
         if (student == null) {
             System.out.println("Student not found!");
             return;
@@ -186,7 +210,11 @@ public class StudentManagementSystem {
         String confirmation = scanner.nextLine().trim().toLowerCase();
         
         if (confirmation.equals("yes") || confirmation.equals("y")) {
-            database.deleteStudent(studentId);
+            if (service.deleteStudent(studentId).isOk()) {
+                System.out.println("Student deleted successfully!");
+            } else {
+                System.out.println("Student not found!");
+            }
         } else {
             System.out.println("Deletion cancelled.");
         }
@@ -205,16 +233,16 @@ public class StudentManagementSystem {
             case 1:
                 System.out.print("Enter name to search: ");
                 String name = scanner.nextLine().trim();
-                results = database.searchByName(name);
+                results = service.searchByName(name).getValue();
                 break;
             case 2:
                 System.out.print("Enter course to search: ");
                 String course = scanner.nextLine().trim();
-                results = database.searchByCourse(course);
+                results = service.searchByCourse(course).getValue();
                 break;
             case 3:
                 int semester = getIntInput("Enter semester to search: ");
-                results = database.searchBySemester(semester);
+                results = service.searchBySemester(semester).getValue();
                 break;
             default:
                 System.out.println("Invalid search type!");
@@ -237,24 +265,17 @@ public class StudentManagementSystem {
     
     private void displayAllStudents() {
         System.out.println("\n=== ALL STUDENTS ===");
-        List<Student> students = database.getAllStudents();
+        int total = service.getTotalStudents();
         
-        if (students.isEmpty()) {
+        if (total == 0) {
             System.out.println("No students in database.");
             return;
         }
         
-        System.out.println("Total Students: " + students.size());
+        System.out.println("Total Students: " + total);
         System.out.println("=".repeat(80));
         
-        for (Student student : students) {
-            System.out.printf("ID: %-6d | Name: %-25s | Course: %-15s | Semester: %-2d | GPA: %.2f%n",
-                            student.getStudentId(),
-                            student.getFullName(),
-                            student.getCourse(),
-                            student.getSemester(),
-                            student.getGpa());
-        }
+        printPages(StudentQuery.SortKey.ID);
     }
     
     private void displaySortedStudents() {
@@ -264,19 +285,19 @@ public class StudentManagementSystem {
         System.out.println("3. Sort by Student ID");
         
         int choice = getIntInput("Enter sorting option: ");
-        List<Student> students = null;
+        StudentQuery.SortKey sortKey;
         
         switch (choice) {
             case 1:
-                students = database.getStudentsSortedByName();
+                sortKey = StudentQuery.SortKey.NAME;
                 System.out.println("\nStudents sorted by Name:");
                 break;
             case 2:
-                students = database.getStudentsSortedByGPA();
+                sortKey = StudentQuery.SortKey.GPA;
                 System.out.println("\nStudents sorted by GPA (Highest to Lowest):");
                 break;
             case 3:
-                students = database.getStudentsSortedById();
+                sortKey = StudentQuery.SortKey.ID;
                 System.out.println("\nStudents sorted by Student ID:");
                 break;
             default:
@@ -284,19 +305,63 @@ public class StudentManagementSystem {
                 return;
         }
         
-        if (students.isEmpty()) {
+        if (service.getTotalStudents() == 0) {
             System.out.println("No students in database.");
             return;
         }
         
         System.out.println("=".repeat(80));
-        for (Student student : students) {
-            System.out.printf("ID: %-6d | Name: %-25s | Course: %-15s | Semester: %-2d | GPA: %.2f%n",
-                            student.getStudentId(),
-                            student.getFullName(),
-                            student.getCourse(),
-                            student.getSemester(),
-                            student.getGpa());
+        printPages(sortKey);
+    }
+    
+    // Print a listing one page at a time, so even a very large roster is never held in full
+    private void printPages(StudentQuery.SortKey sortKey) {
+        String cursor = null;
+        while (true) {
+            StudentRenderCache.Listing page = service.renderStudents(sortKey, cursor, PAGE_SIZE).getValue();
+            System.out.print(page.getText());
+            cursor = page.getNextCursor();
+            if (cursor == null) {
+                return;
+            }
+            System.out.print("-- Press Enter for more, or type 'q' to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+        }
+    }
+    
+    private void displayStatistics() {
+        StudentStatistics.Snapshot stats = service.getStatistics().getValue();
+        if (stats.getTotalStudents() == 0) {
+            System.out.println("No students in database.");
+            return;
+        }
+        
+        System.out.println("\n=== DATABASE STATISTICS ===");
+        System.out.println("Total Students: " + stats.getTotalStudents());
+        
+        System.out.println("\nCourse Distribution:");
+        for (Map.Entry<String, Integer> entry : stats.getCourseCounts().entrySet()) {
+            System.out.println("  " + entry.getKey() + ": " + entry.getValue() + " students");
+        }
+        
+        System.out.println("\nSemester Distribution:");
+        for (Map.Entry<Integer, Integer> entry : stats.getSemesterCounts().entrySet()) {
+            System.out.println("  Semester " + entry.getKey() + ": " + entry.getValue() + " students");
+        }
+        
+        if (stats.getGpaCount() > 0) {
+            System.out.println("\nAverage GPA: " + String.format("%.2f", stats.getAverageGpa()));
+            System.out.println("GPA Range: " + String.format("%.2f - %.2f", stats.getMinGpa(), stats.getMaxGpa()));
+            System.out.println("GPA Median (est.): " + String.format("%.2f", stats.getGpaPercentile(0.5)));
+            System.out.println("GPA 90th Percentile (est.): " + String.format("%.2f", stats.getGpaPercentile(0.9)));
+        }
+        
+        System.out.println("Next Student ID: " + service.getNextStudentId());
+        System.out.println(service.getRenderCache());
+        if (service.getMetrics().isEnabled()) {
+            System.out.println(service.getMetrics());
         }
     }
     
@@ -304,7 +369,7 @@ public class StudentManagementSystem {
         System.out.println("\n=== MANAGE STUDENT SUBJECTS ===");
         int studentId = getIntInput("Enter Student ID: ");
         
-        Student student = database.getStudent(studentId);
+        Student student = service.getStudent(studentId).getValue();
         if (student == null) {
             System.out.println("Student not found!");
             return;
@@ -322,8 +387,8 @@ public class StudentManagementSystem {
             case 1:
                 System.out.print("Enter subject to add: ");
                 String subjectToAdd = scanner.nextLine().trim();
-                student.addSubject(subjectToAdd);
-                System.out.println("Subject added successfully!");
+                StudentService.Result<Student> added = service.addSubject(studentId, subjectToAdd);
+                System.out.println(added.isOk() ? "Subject added successfully!" : "Error: " + added.getMessage());
                 break;
             case 2:
                 if (student.getSubjects().isEmpty()) {
@@ -332,14 +397,61 @@ public class StudentManagementSystem {
                 }
                 System.out.print("Enter subject to remove: ");
                 String subjectToRemove = scanner.nextLine().trim();
-                student.removeSubject(subjectToRemove);
-                System.out.println("Subject removed successfully!");
+                StudentService.Result<Student> removed = service.removeSubject(studentId, subjectToRemove);
+                System.out.println(removed.isOk() ? "Subject removed successfully!" : "Error: " + removed.getMessage());
                 break;
             default:
                 System.out.println("Invalid choice!");
         }
     }
     
+    private void importStudents() {
+        System.out.println("\n=== IMPORT STUDENTS FROM CSV ===");
+        System.out.println("Header columns: firstName,lastName,email,phone,dateOfBirth,address,course,semester[,gpa]");
+        System.out.print("CSV file path: ");
+        String path = scanner.nextLine().trim();
+        
+        StudentService.Result<StudentCsvImporter.ImportReport> result = service.importCsv(Paths.get(path));
+        if (!result.isOk()) {
+            System.out.println(result.getMessage());
+            return;
+        }
+        StudentCsvImporter.ImportReport report = result.getValue();
+        System.out.println("Rows read: " + report.getRowsRead());
+        System.out.println("Imported: " + report.getImported());
+        System.out.println("Failed: " + report.getFailed());
+        for (StudentCsvImporter.RowError error : report.getErrors()) {
+            System.out.println("  " + error);
+        }
+    }
+    
+    private void exportStudents() {
+        System.out.println("\n=== EXPORT STUDENTS ===");
+        System.out.println("1. CSV");
+        System.out.println("2. JSON Lines");
+        int choice = getIntInput("Enter format: ");
+        if (choice != 1 && choice != 2) {
+            System.out.println("Invalid format!");
+            return;
+        }
+        StudentExporter.Format format = choice == 1 ? StudentExporter.Format.CSV : StudentExporter.Format.NDJSON;
+        
+        System.out.print("Output file path: ");
+        String path = scanner.nextLine().trim();
+        System.out.print("Course filter (press Enter for all): ");
+        String course = scanner.nextLine().trim();
+        System.out.print("Compress with gzip? (yes/no): ");
+        String gzip = scanner.nextLine().trim().toLowerCase();
+        
+        StudentService.Result<Long> result = service.export(Paths.get(path), format, course,
+                                                            gzip.equals("yes") || gzip.equals("y"));
+        if (result.isOk()) {
+            System.out.println("Exported " + result.getValue() + " students to " + path);
+        } else {
+            System.out.println(result.getMessage());
+        }
+    }
+    
     // Helper methods for input validation
     private int getIntInput(String prompt) {
         while (true) {
@@ -0,0 +1,317 @@
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.*;
+
+/**
+ * StudentMetrics class recording how often and how long StudentDatabase operations run
+ * Each operation has a call count, an error count and a LatencyHistogram; persistence also counts
+ * journal and snapshot bytes and times every fsync. All recorders are lock-free. The figures can
+ * be read from a JMX MBean and printed periodically. DISABLED records nothing and never reads
+ * the clock, so an uninstrumented database behaves and performs as before.
+ * Enable it for the default databases with -Dstudent.metrics=<seconds between reports, 0 for none>
+ */
+public class StudentMetrics implements AutoCloseable {
+    public static final StudentMetrics DISABLED = new StudentMetrics(false);
+    public static final String PROPERTY = "student.metrics";
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    
+    public enum Operation {
+        ADD("addStudent"),
+        GET("getStudent"),
+        UPDATE("updateStudent"),
+        DELETE("deleteStudent"),
+        SEARCH_BY_NAME("searchByName"),
+        SEARCH_BY_COURSE("searchByCourse"),
+        SEARCH_BY_SEMESTER("searchBySemester"),
+        QUERY("query"),
+        PAGE("getStudentPage"),
+        LOAD("loadFromFile"),
+        SAVE("saveToFile"),
+        JOURNAL_FLUSH("journalFlush"),
+        FSYNC("fsync");
+        
+        private final String displayName;
+        
+        Operation(String displayName) {
+            this.displayName = displayName;
+        }
+        
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+    
+    private final boolean enabled;
+    private final LatencyHistogram[] latencies;    // by Operation ordinal
+    private final LongAdder[] errors;
+    private final LongAdder journalBytes;
+    private final LongAdder snapshotBytes;
+    private LocalDateTime since;
+    private ScheduledExecutorService reporter;
+    private ObjectName registeredName;
+    
+    public StudentMetrics() {
+        this(true);
+    }
+    
+    private StudentMetrics(boolean enabled) {
+        this.enabled = enabled;
+        int operations = enabled ? Operation.values().length : 0;
+        this.latencies = new LatencyHistogram[operations];
+        this.errors = new LongAdder[operations];
+        for (int i = 0; i < operations; i++) {
+            latencies[i] = new LatencyHistogram();
+            errors[i] = new LongAdder();
+        }
+        this.journalBytes = new LongAdder();
+        this.snapshotBytes = new LongAdder();
+        this.since = LocalDateTime.now();
+    }
+    
+    // Metrics as configured by -Dstudent.metrics: DISABLED when it is unset, otherwise registered
+    // with JMX under the data file's name and reported every that many seconds
+    public static StudentMetrics fromSystemProperty(String dataFile) {
+        String setting = System.getProperty(PROPERTY);
+        if (setting == null) {
+            return DISABLED;
+        }
+        StudentMetrics metrics = new StudentMetrics();
+        metrics.register(dataFile);
+        try {
+            long seconds = Long.parseLong(setting.trim());
+            if (seconds > 0) {
+                metrics.startReporting(seconds);
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid " + PROPERTY + " value, not reporting metrics: " + setting);
+        }
+        return metrics;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    // Start time of an operation, to pass to record(); 0 when disabled
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+    
+    public void record(Operation operation, long start, boolean ok) {
+        if (!enabled) {
+            return;
+        }
+        latencies[operation.ordinal()].record(System.nanoTime() - start);
+        if (!ok) {
+            errors[operation.ordinal()].increment();
+        }
+    }
+    
+    public void addJournalBytes(long bytes) {
+        if (enabled) {
+            journalBytes.add(bytes);
+        }
+    }
+    
+    public void addSnapshotBytes(long bytes) {
+        if (enabled) {
+            snapshotBytes.add(bytes);
+        }
+    }
+    
+    public long getCount(Operation operation) {
+        return enabled ? latencies[operation.ordinal()].snapshot().getCount() : 0;
+    }
+    
+    public long getErrors(Operation operation) {
+        return enabled ? errors[operation.ordinal()].sum() : 0;
+    }
+    
+    public LatencyHistogram.Snapshot getLatencies(Operation operation) {
+        return enabled ? latencies[operation.ordinal()].snapshot() : new LatencyHistogram().snapshot();
+    }
+    
+    public long getJournalBytes() { return journalBytes.sum(); }
+    public long getSnapshotBytes() { return snapshotBytes.sum(); }
+    
+    public synchronized void reset() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i].reset();
+            errors[i].reset();
+        }
+        journalBytes.reset();
+        snapshotBytes.reset();
+        since = LocalDateTime.now();
+    }
+    
+    // Print the report every period on a daemon thread, until close()
+    public synchronized void startReporting(long periodSeconds) {
+        if (!enabled || reporter != null) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "student-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> System.out.println(this), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+    
+    // Expose the metrics as the MBean StudentDatabase:type=Metrics,name=<name>
+    public synchronized void register(String name) {
+        if (!enabled || registeredName != null) {
+            return;
+        }
+        try {
+            ObjectName objectName = new ObjectName("StudentDatabase:type=Metrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), objectName);
+            registeredName = objectName;
+        } catch (JMException e) {
+            System.out.println("Could not register metrics MBean: " + e.getMessage());
+        }
+    }
+    
+    // Stop reporting and unregister the MBean; recording still works afterwards
+    @Override
+    public synchronized void close() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+        if (registeredName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+            } catch (JMException e) {
+                System.out.println("Could not unregister metrics MBean: " + e.getMessage());
+            }
+            registeredName = null;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        if (!enabled) {
+            return "Metrics: disabled";
+        }
+        StringBuilder sb = new StringBuilder(1024);
+        synchronized (this) {
+            sb.append("=== OPERATION METRICS (since ").append(since.format(TIME_FORMAT)).append(") ===\n");
+        }
+        sb.append(String.format("%-18s %10s %8s %10s %10s %10s %10s %10s%n",
+                                "operation", "count", "errors", "mean us", "p50 us", "p99 us", "p99.9 us", "max us"));
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram.Snapshot snapshot = latencies[operation.ordinal()].snapshot();
+            if (snapshot.getCount() == 0) {
+                continue;
+            }
+            sb.append(String.format("%-18s %,10d %,8d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                                    operation.getDisplayName(), snapshot.getCount(), getErrors(operation),
+                                    snapshot.getMean() / 1e3, snapshot.getPercentile(0.50) / 1e3,
+                                    snapshot.getPercentile(0.99) / 1e3, snapshot.getPercentile(0.999) / 1e3,
+                                    snapshot.getMax() / 1e3));
+        }
+        sb.append(String.format("Persistence: %,d journal bytes, %,d snapshot bytes", getJournalBytes(), getSnapshotBytes()));
+        return sb.toString();
+    }
+    
+    // Read-only JMX view: "<operation>.<statistic>" per operation, the byte counters, the report and reset()
+    private class Bean implements DynamicMBean {
+        private final String[] statistics = {"count", "errors", "meanMicros", "p50Micros", "p99Micros", "p999Micros", "maxMicros"};
+        private final MBeanInfo info;
+        
+        Bean() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            for (Operation operation : Operation.values()) {
+                for (String statistic : statistics) {
+                    boolean whole = statistic.equals("count") || statistic.equals("errors");
+                    attributes.add(new MBeanAttributeInfo(operation.getDisplayName() + "." + statistic,
+                                                          whole ? "long" : "double", statistic + " of " + operation.getDisplayName(),
+                                                          true, false, false));
+                }
+            }
+            attributes.add(new MBeanAttributeInfo("journalBytes", "long", "Bytes written to the journal", true, false, false));
+            attributes.add(new MBeanAttributeInfo("snapshotBytes", "long", "Bytes written to snapshots", true, false, false));
+            attributes.add(new MBeanAttributeInfo("report", "java.lang.String", "All metrics as text", true, false, false));
+            MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Clear all metrics", new MBeanParameterInfo[0],
+                                                              "void", MBeanOperationInfo.ACTION);
+            this.info = new MBeanInfo(StudentMetrics.class.getName(), "Student database operation metrics",
+                                      attributes.toArray(new MBeanAttributeInfo[0]), null,
+                                      new MBeanOperationInfo[] {reset}, null);
+        }
+        
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            switch (attribute) {
+                case "journalBytes": return getJournalBytes();
+                case "snapshotBytes": return getSnapshotBytes();
+                case "report": return StudentMetrics.this.toString();
+                default: break;
+            }
+            int dot = attribute.lastIndexOf('.');
+            String name = dot > 0 ? attribute.substring(0, dot) : attribute;
+            for (Operation operation : Operation.values()) {
+                if (operation.getDisplayName().equals(name)) {
+                    return statistic(operation, attribute.substring(dot + 1), attribute);
+                }
+            }
+            throw new AttributeNotFoundException(attribute);
+        }
+        
+        private Object statistic(Operation operation, String statistic, String attribute) throws AttributeNotFoundException {
+            LatencyHistogram.Snapshot snapshot = latencies[operation.ordinal()].snapshot();
+            switch (statistic) {
+                case "count": return snapshot.getCount();
+                case "errors": return getErrors(operation);
+                case "meanMicros": return snapshot.getMean() / 1e3;
+                case "p50Micros": return snapshot.getPercentile(0.50) / 1e3;
+                case "p99Micros": return snapshot.getPercentile(0.99) / 1e3;
+                case "p999Micros": return snapshot.getPercentile(0.999) / 1e3;
+                case "maxMicros": return snapshot.getMax() / 1e3;
+                default: throw new AttributeNotFoundException(attribute);
+            }
+        }
+        
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                try {
+                    list.add(new Attribute(attribute, getAttribute(attribute)));
+                } catch (AttributeNotFoundException e) {
+                    // unknown names are left out, as the MBean contract allows
+                }
+            }
+            return list;
+        }
+        
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+        }
+        
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+        
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+            if (actionName.equals("reset")) {
+                reset();
+                return null;
+            }
+            throw new ReflectionException(new NoSuchMethodException(actionName));
+        }
+        
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            return info;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+import java.util.List;
+
+/**
+ * StudentPage class holding one page of an ordered student listing
+ * The next cursor is opaque to callers: pass it back to get the following page. It is null on the
+ * last page
+ */
+public class StudentPage {
+    private final List<Student> students;
+    private final String nextCursor;
+    
+    public StudentPage(List<Student> students, String nextCursor) {
+        this.students = students;
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<Student> getStudents() { return students; }
+    public String getNextCursor() { return nextCursor; }
+    
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
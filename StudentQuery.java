@@ -0,0 +1,243 @@
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * StudentQuery class describing a filtered, sorted and paged search run by StudentDatabase.query
+ * Every criterion that is set must match; extra conditions can be composed from any Predicate.
+ * Large candidate sets are filtered in parallel on the common fork-join pool
+ */
+public class StudentQuery {
+    public enum SortKey { ID, NAME, GPA }
+    
+    private static final int PARALLEL_THRESHOLD = 50000;    // candidates below this are filtered on the caller's thread
+    private static final int SPLIT_SIZE = 8192;             // candidates per fork-join leaf
+    
+    private String name;             // substring of the full name, case-insensitive
+    private String course;           // substring of the course name, case-insensitive
+    private Integer semester;
+    private double minGpa = Double.NEGATIVE_INFINITY;
+    private double maxGpa = Double.POSITIVE_INFINITY;
+    private int minAge = Integer.MIN_VALUE;
+    private int maxAge = Integer.MAX_VALUE;
+    private LocalDate enrolledFrom;
+    private LocalDate enrolledTo;
+    private Predicate<Student> filter;
+    private SortKey sortKey;
+    private int offset;
+    private int limit = Integer.MAX_VALUE;
+    
+    // Criteria
+    public void setName(String name) { this.name = name; }
+    public void setCourse(String course) { this.course = course; }
+    public void setSemester(Integer semester) { this.semester = semester; }
+    public void setGpaRange(double minGpa, double maxGpa) { this.minGpa = minGpa; this.maxGpa = maxGpa; }
+    public void setAgeRange(int minAge, int maxAge) { this.minAge = minAge; this.maxAge = maxAge; }
+    public void setEnrollmentDateRange(LocalDate from, LocalDate to) { this.enrolledFrom = from; this.enrolledTo = to; }
+    
+    // Add a further condition; conditions combine with AND, and can be built with Predicate.or/negate
+    public void addFilter(Predicate<Student> condition) {
+        filter = filter == null ? condition : filter.and(condition);
+    }
+    
+    // Ordering and paging
+    public void setSortKey(SortKey sortKey) { this.sortKey = sortKey; }
+    public void setOffset(int offset) { this.offset = Math.max(0, offset); }
+    public void setLimit(int limit) { this.limit = Math.max(0, limit); }
+    
+    public String getName() { return name; }
+    public String getCourse() { return course; }
+    public Integer getSemester() { return semester; }
+    public double getMinGpa() { return minGpa; }
+    public double getMaxGpa() { return maxGpa; }
+    public SortKey getSortKey() { return sortKey; }
+    public int getOffset() { return offset; }
+    public int getLimit() { return limit; }
+    
+    public boolean hasGpaRange() {
+        return minGpa != Double.NEGATIVE_INFINITY || maxGpa != Double.POSITIVE_INFINITY;
+    }
+    
+    // True if any student could be filtered out
+    public boolean hasCriteria() {
+        return name != null || course != null || semester != null || hasGpaRange()
+            || minAge != Integer.MIN_VALUE || maxAge != Integer.MAX_VALUE
+            || enrolledFrom != null || enrolledTo != null || filter != null;
+    }
+    
+    // Filter the candidates, then sort and cut out the requested page
+    List<Student> run(Student[] candidates) {
+        Predicate<Student> predicate = toPredicate();
+        Student[] matches;
+        if (candidates.length >= PARALLEL_THRESHOLD) {
+            matches = ForkJoinPool.commonPool().invoke(new FilterTask(candidates, 0, candidates.length, predicate));
+        } else {
+            matches = filter(candidates, 0, candidates.length, predicate);
+        }
+        
+        int needed = (int) Math.min((long) offset + limit, matches.length);
+        if (sortKey == SortKey.NAME) {
+            // Lower-case each name once, rather than on both sides of every comparison
+            NamedStudent[] named = new NamedStudent[matches.length];
+            for (int i = 0; i < matches.length; i++) {
+                named[i] = new NamedStudent(matches[i]);
+            }
+            named = sort(named, needed, Comparator.<SortedStudentView.NameKey>naturalOrder());
+            matches = new Student[named.length];
+            for (int i = 0; i < named.length; i++) {
+                matches[i] = named[i].student;
+            }
+        } else if (sortKey != null) {
+            matches = sort(matches, needed, comparator(sortKey));
+        }
+        
+        int from = Math.min(offset, matches.length);
+        int to = (int) Math.min((long) from + limit, matches.length);
+        return new ArrayList<>(Arrays.asList(matches).subList(from, to));
+    }
+    
+    // Same orders as the SortedStudentView factories
+    static Comparator<Student> comparator(SortKey sortKey) {
+        switch (sortKey) {
+            case NAME:
+                return Comparator.comparing((Student s) -> s.getFullName().toLowerCase(Locale.ROOT))
+                    .thenComparingInt(Student::getStudentId);
+            case GPA:
+                return Comparator.comparingDouble(Student::getGpa).reversed()
+                    .thenComparingInt(Student::getStudentId);
+            default:
+                return Comparator.comparingInt(Student::getStudentId);
+        }
+    }
+    
+    // Combine the criteria into one predicate; ages are counted in calendar years, as Student.getAge does
+    private Predicate<Student> toPredicate() {
+        String nameText = name == null ? null : name.toLowerCase(Locale.ROOT);
+        boolean[] courses = course == null ? null : StringDictionary.SHARED.findContaining(course);
+        int year = LocalDate.now().getYear();
+        long minBirthYear = (long) year - maxAge;
+        long maxBirthYear = (long) year - minAge;
+        LocalDate from = enrolledFrom == null ? LocalDate.MIN : enrolledFrom;
+        LocalDate to = enrolledTo == null ? LocalDate.MAX : enrolledTo;
+        Integer semester = this.semester;
+        double minGpa = this.minGpa;
+        double maxGpa = this.maxGpa;
+        Predicate<Student> extra = filter;
+        
+        return student -> {
+            if (semester != null && student.getSemester() != semester) {
+                return false;
+            }
+            double gpa = student.getGpa();
+            if (gpa < minGpa || gpa > maxGpa) {
+                return false;
+            }
+            int birthYear = student.getDateOfBirth().getYear();
+            if (birthYear < minBirthYear || birthYear > maxBirthYear) {
+                return false;
+            }
+            LocalDate enrolled = student.getEnrollmentDate();
+            if (enrolled.isBefore(from) || enrolled.isAfter(to)) {
+                return false;
+            }
+            if (courses != null) {
+                int code = student.getCourseCode();
+                if (code >= courses.length || !courses[code]) {
+                    return false;
+                }
+            }
+            if (nameText != null && !student.getFullName().toLowerCase(Locale.ROOT).contains(nameText)) {
+                return false;
+            }
+            return extra == null || extra.test(student);
+        };
+    }
+    
+    // The items in order, or only the first needed of them when that is a small part
+    private static <T> T[] sort(T[] items, int needed, Comparator<? super T> order) {
+        if (needed < items.length / 8) {
+            return first(items, needed, order);
+        }
+        if (items.length >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(items, order);
+        } else {
+            Arrays.sort(items, order);
+        }
+        return items;
+    }
+    
+    // The first count items in the given order, found with a bounded heap instead of a full sort
+    private static <T> T[] first(T[] items, int count, Comparator<? super T> order) {
+        T[] result = Arrays.copyOf(items, 0);
+        if (count == 0) {
+            return result;
+        }
+        PriorityQueue<T> heap = new PriorityQueue<>(count, Collections.reverseOrder(order));
+        for (T item : items) {
+            if (heap.size() < count) {
+                heap.add(item);
+            } else if (order.compare(item, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+        result = heap.toArray(result);
+        Arrays.sort(result, order);
+        return result;
+    }
+    
+    private static Student[] filter(Student[] candidates, int from, int to, Predicate<Student> predicate) {
+        Student[] matches = new Student[to - from];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (predicate.test(candidates[i])) {
+                matches[count++] = candidates[i];
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+    
+    // A student with its name sort key, ordered as SortedStudentView.byName orders students
+    private static class NamedStudent extends SortedStudentView.NameKey {
+        final Student student;
+        
+        NamedStudent(Student student) {
+            super(student);
+            this.student = student;
+        }
+    }
+    
+    // Splits the candidate range in halves down to SPLIT_SIZE and joins the matches in order
+    private static class FilterTask extends RecursiveTask<Student[]> {
+        private static final long serialVersionUID = 1L;
+        
+        private final Student[] candidates;
+        private final int from;
+        private final int to;
+        private final Predicate<Student> predicate;
+        
+        FilterTask(Student[] candidates, int from, int to, Predicate<Student> predicate) {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.predicate = predicate;
+        }
+        
+        @Override
+        protected Student[] compute() {
+            if (to - from <= SPLIT_SIZE) {
+                return filter(candidates, from, to, predicate);
+            }
+            int middle = (from + to) >>> 1;
+            FilterTask left = new FilterTask(candidates, from, middle, predicate);
+            left.fork();
+            Student[] right = new FilterTask(candidates, middle, to, predicate).compute();
+            Student[] leftMatches = left.join();
+            Student[] matches = Arrays.copyOf(leftMatches, leftMatches.length + right.length);
+            System.arraycopy(right, 0, matches, leftMatches.length, right.length);
+            return matches;
+        }
+    }
+}
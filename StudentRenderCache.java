@@ -0,0 +1,180 @@
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * StudentRenderCache class keeping the display text of recently viewed students and listings
+ * A student's detail text and listing row are cached under its ID together with the record version
+ * they were rendered from, so a changed student is re-rendered on its next view. Listing pages are
+ * cached by order, cursor and size, and are dropped whenever any student changes. Students are bounded by
+ * count and listings by total characters, evicting the least recently used entry first. Rendering a
+ * listing reuses cached rows but does not add to them, so one long listing cannot flush the
+ * students being viewed. Hits, misses and evictions are counted. Safe for use from many threads
+ */
+public class StudentRenderCache {
+    private final LinkedHashMap<Integer, Rendered> students;    // access order, eldest evicted first
+    private final LinkedHashMap<String, Listing> listings;      // access order; evicted by evictListings
+    private final long maxListingChars;
+    private long listingChars;
+    private long hits;
+    private long misses;
+    private long evictions;
+    
+    public StudentRenderCache(int maxStudents, long maxListingChars) {
+        this.maxListingChars = maxListingChars;
+        this.students = new LinkedHashMap<Integer, Rendered>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Rendered> eldest) {
+                return evictIf(size() > maxStudents);
+            }
+        };
+        this.listings = new LinkedHashMap<>(16, 0.75f, true);
+    }
+    
+    // The multi-line detail text shown when viewing one student
+    public synchronized String detail(Student student) {
+        Rendered rendered = lookup(student);
+        if (rendered.detail == null) {
+            misses++;
+            rendered.detail = student.toString();
+        } else {
+            hits++;
+        }
+        return rendered.detail;
+    }
+    
+    // The one-line summary used in listings
+    public synchronized String row(Student student) {
+        Rendered rendered = lookup(student);
+        if (rendered.row == null) {
+            misses++;
+            rendered.row = renderRow(student);
+        } else {
+            hits++;
+        }
+        return rendered.row;
+    }
+    
+    // One page of a listing, one row per line; the page is only fetched when it is not cached
+    // Pages larger than the whole listing budget are rendered but not kept
+    public synchronized Listing listing(StudentQuery.SortKey sortKey, String cursor, int limit, Supplier<StudentPage> fetch) {
+        String key = sortKey + ":" + limit + ":" + cursor;
+        Listing listing = listings.get(key);
+        if (listing != null) {
+            hits++;
+            return listing;
+        }
+        misses++;
+        StudentPage page = fetch.get();
+        StringBuilder sb = new StringBuilder(page.getStudents().size() * 100);
+        for (Student student : page.getStudents()) {
+            Rendered rendered = current(student);
+            sb.append(rendered != null && rendered.row != null ? rendered.row : renderRow(student)).append('\n');
+        }
+        listing = new Listing(sb.toString(), page.getNextCursor());
+        if (listing.text.length() <= maxListingChars) {
+            listings.put(key, listing);
+            listingChars += listing.text.length();
+            evictListings();
+        }
+        return listing;
+    }
+    
+    // Called whenever a student is added, changed or removed
+    public synchronized void invalidate(int studentId) {
+        students.remove(studentId);
+        clearListings();
+    }
+    
+    public synchronized void clear() {
+        students.clear();
+        clearListings();
+    }
+    
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return String.format("Render cache: %d students, %d listings (%,d chars), %d hits, %d misses (%.1f%% hit rate), %d evictions",
+                             students.size(), listings.size(), listingChars, hits, misses, getHitRate() * 100, evictions);
+    }
+    
+    static String renderRow(Student student) {
+        return String.format("ID: %-6d | Name: %-25s | Course: %-15s | Semester: %-2d | GPA: %.2f",
+                             student.getStudentId(), student.getFullName(), student.getCourse(),
+                             student.getSemester(), student.getGpa());
+    }
+    
+    // Entry for the student's current version; the detail text shows an age, so it also expires with the year
+    private Rendered lookup(Student student) {
+        int year = LocalDate.now().getYear();
+        Rendered rendered = students.get(student.getStudentId());
+        if (rendered == null || rendered.version != student.getVersion() || rendered.year != year) {
+            rendered = new Rendered(student.getVersion(), year);
+            students.put(student.getStudentId(), rendered);
+        }
+        return rendered;
+    }
+    
+    // Current entry of a student without creating one, or null
+    private Rendered current(Student student) {
+        Rendered rendered = students.get(student.getStudentId());
+        return rendered != null && rendered.version == student.getVersion() ? rendered : null;
+    }
+    
+    private void evictListings() {
+        Iterator<Listing> eldest = listings.values().iterator();
+        while (listingChars > maxListingChars && eldest.hasNext()) {
+            listingChars -= eldest.next().text.length();
+            eldest.remove();
+            evictions++;
+        }
+    }
+    
+    private void clearListings() {
+        listings.clear();
+        listingChars = 0;
+    }
+    
+    private boolean evictIf(boolean full) {
+        if (full) {
+            evictions++;
+        }
+        return full;
+    }
+    
+    // Rendered rows of one page and the cursor of the page after it, null on the last page
+    public static class Listing {
+        private final String text;
+        private final String nextCursor;
+        
+        Listing(String text, String nextCursor) {
+            this.text = text;
+            this.nextCursor = nextCursor;
+        }
+        
+        public String getText() { return text; }
+        public String getNextCursor() { return nextCursor; }
+    }
+    
+    private static class Rendered {
+        final int version;
+        final int year;
+        String detail;
+        String row;
+        
+        Rendered(int version, int year) {
+            this.version = version;
+            this.year = year;
+        }
+    }
+}
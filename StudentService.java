@@ -0,0 +1,353 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StudentService class exposing the student operations without any terminal I/O
+ * Every operation validates its input and returns a Result carrying either the value or a status
+ * and message describing why it failed, so the same calls can back the console, scripts, batch
+ * jobs and benchmarks. Calls are serialized on the service, which should be the only user of its
+ * database; exports, full listings and queries that must scan every student read a snapshot
+ * instead, so they do not hold up other calls. Students in results are copies taken during the
+ * call, so they can be read after it returns while other calls change the database
+ */
+public class StudentService implements StudentStore {
+    public enum Status { OK, NOT_FOUND, DUPLICATE_EMAIL, INVALID_INPUT, REJECTED, IO_ERROR }
+    
+    private final StudentDatabase database;
+    
+    public StudentService(StudentDatabase database) {
+        this.database = database;
+    }
+    
+    // Students
+    @Override
+    public synchronized Result<Student> addStudent(String firstName, String lastName, String email,
+                                                   String phoneNumber, LocalDate dateOfBirth, String address,
+                                                   String course, int semester) {
+        String error = validateNew(firstName, lastName, email, course, semester, dateOfBirth);
+        if (error != null) {
+            return Result.error(Status.INVALID_INPUT, error);
+        }
+        int studentId = database.addStudent(firstName, lastName, email, phoneNumber, dateOfBirth, address, course, semester);
+        if (studentId < 0) {
+            return Result.error(Status.DUPLICATE_EMAIL, "Email already exists: " + email);
+        }
+        return Result.ok(database.getStudent(studentId).copy());
+    }
+    
+    @Override
+    public synchronized Result<Student> getStudent(int studentId) {
+        Student student = database.getStudent(studentId);
+        return student == null ? notFound(studentId) : Result.ok(student.copy());
+    }
+    
+    @Override
+    public synchronized Result<Student> updateStudent(int studentId, String firstName, String lastName,
+                                                      String email, String phoneNumber, String address,
+                                                      String course, int semester, double gpa) {
+        Student student = database.getStudent(studentId);
+        if (student == null) {
+            return notFound(studentId);
+        }
+        String error = validateUpdate(firstName, lastName, email, course, semester, gpa);
+        if (error != null) {
+            return Result.error(Status.INVALID_INPUT, error);
+        }
+        Student owner = database.findByEmail(email);
+        if (owner != null && owner.getStudentId() != studentId) {
+            return Result.error(Status.DUPLICATE_EMAIL, "Email already exists: " + email);
+        }
+        database.updateStudent(studentId, firstName, lastName, email, phoneNumber, address, course, semester, gpa);
+        return Result.ok(student.copy());
+    }
+    
+    @Override
+    public synchronized Result<Student> updateStudentFields(int studentId, String firstName, String lastName,
+                                                            String email, String phoneNumber, String address,
+                                                            String course, Integer semester, Double gpa) {
+        Student student = database.getStudent(studentId);
+        if (student == null) {
+            return notFound(studentId);
+        }
+        return updateStudent(studentId,
+                             firstName != null ? firstName : student.getFirstName(),
+                             lastName != null ? lastName : student.getLastName(),
+                             email != null ? email : student.getEmail(),
+                             phoneNumber != null ? phoneNumber : student.getPhoneNumber(),
+                             address != null ? address : student.getAddress(),
+                             course != null ? course : student.getCourse(),
+                             semester != null ? semester : student.getSemester(),
+                             gpa != null ? gpa : student.getGpa());
+    }
+    
+    // Returns the deleted student
+    @Override
+    public synchronized Result<Student> deleteStudent(int studentId) {
+        Student student = database.getStudent(studentId);
+        if (student == null) {
+            return notFound(studentId);
+        }
+        database.deleteStudent(studentId);
+        return Result.ok(student.copy());
+    }
+    
+    public synchronized Result<Student> addSubject(int studentId, String subject) {
+        Student student = database.getStudent(studentId);
+        if (student == null) {
+            return notFound(studentId);
+        }
+        if (isBlank(subject)) {
+            return Result.error(Status.INVALID_INPUT, "Subject is required");
+        }
+        database.addSubject(studentId, subject);
+        return Result.ok(student.copy());
+    }
+    
+    public synchronized Result<Student> removeSubject(int studentId, String subject) {
+        Student student = database.getStudent(studentId);
+        if (student == null) {
+            return notFound(studentId);
+        }
+        if (!student.hasSubject(subject)) {
+            return Result.error(Status.NOT_FOUND, "Subject not found: " + subject);
+        }
+        database.removeSubject(studentId, subject);
+        return Result.ok(student.copy());
+    }
+    
+    // Searches and listings
+    public synchronized Result<List<Student>> searchByName(String name) {
+        return isBlank(name) ? Result.error(Status.INVALID_INPUT, "Name is required") : Result.ok(copies(database.searchByName(name)));
+    }
+    
+    public synchronized Result<List<Student>> searchByCourse(String course) {
+        return isBlank(course) ? Result.error(Status.INVALID_INPUT, "Course is required") : Result.ok(copies(database.searchByCourse(course)));
+    }
+    
+    public synchronized Result<List<Student>> searchBySemester(int semester) {
+        return Result.ok(copies(database.searchBySemester(semester)));
+    }
+    
+    // Queries that no view or index can narrow are run over a snapshot, outside the service lock
+    @Override
+    public Result<List<Student>> query(StudentQuery query) {
+        StudentVersions.Snapshot snapshot;
+        synchronized (this) {
+            if (!database.scansAll(query)) {
+                return Result.ok(copies(database.query(query)));
+            }
+            snapshot = database.snapshot();
+        }
+        try (snapshot) {
+            return Result.ok(database.query(query, snapshot));
+        }
+    }
+    
+    // All students in the given order, or in ID order when sortKey is null; sorted from a snapshot,
+    // outside the service lock
+    public Result<List<Student>> listStudents(StudentQuery.SortKey sortKey) {
+        StudentQuery query = new StudentQuery();
+        query.setSortKey(sortKey == null ? StudentQuery.SortKey.ID : sortKey);
+        try (StudentVersions.Snapshot snapshot = snapshot()) {
+            return Result.ok(database.query(query, snapshot));
+        }
+    }
+    
+    @Override
+    public synchronized Result<StudentStatistics.Snapshot> getStatistics() {
+        return Result.ok(database.getStatistics());
+    }
+    
+    public synchronized int getTotalStudents() {
+        return database.getTotalStudents();
+    }
+    
+    // Display text, served from the render cache when the student has not changed since it was last shown
+    public synchronized Result<String> renderStudent(int studentId) {
+        String text = database.renderStudent(studentId);
+        return text == null ? notFound(studentId) : Result.ok(text);
+    }
+    
+    // One page of rendered listing rows; start with a null cursor and pass back each page's next cursor
+    public synchronized Result<StudentRenderCache.Listing> renderStudents(StudentQuery.SortKey sortKey, String cursor, int limit) {
+        try {
+            return Result.ok(database.renderStudents(sortKey, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return Result.error(Status.INVALID_INPUT, e.getMessage());
+        }
+    }
+    
+    // One page of students in the given order; start with a null cursor and pass back each page's next cursor
+    @Override
+    public synchronized Result<StudentPage> listStudents(StudentQuery.SortKey sortKey, String cursor, int limit) {
+        try {
+            StudentPage page = database.getStudentPage(sortKey, cursor, limit);
+            return Result.ok(new StudentPage(copies(page.getStudents()), page.getNextCursor()));
+        } catch (IllegalArgumentException e) {
+            return Result.error(Status.INVALID_INPUT, e.getMessage());
+        }
+    }
+    
+    public StudentRenderCache getRenderCache() {
+        return database.getRenderCache();
+    }
+    
+    public StudentMetrics getMetrics() {
+        return database.getMetrics();
+    }
+    
+    public synchronized int getNextStudentId() {
+        return database.getNextStudentId();
+    }
+    
+    // Courses
+    public synchronized Result<CourseCatalog.EnrollmentResult> enroll(int studentId, String courseId) {
+        CourseCatalog.EnrollmentResult outcome = database.enrollInCourse(studentId, courseId);
+        switch (outcome) {
+            case ENROLLED:
+            case WAITLISTED:
+                return Result.ok(outcome);
+            case NO_SUCH_STUDENT:
+                return notFound(studentId);
+            case NO_SUCH_COURSE:
+                return Result.error(Status.NOT_FOUND, "Course not found: " + courseId);
+            default:
+                return Result.error(Status.REJECTED, outcome.toString());
+        }
+    }
+    
+    public synchronized Result<Void> drop(int studentId, String courseId) {
+        if (!database.dropFromCourse(studentId, courseId)) {
+            return Result.error(Status.NOT_FOUND, "Student " + studentId + " is not enrolled in " + courseId);
+        }
+        return Result.ok(null);
+    }
+    
+    // Import and export
+    public synchronized Result<StudentCsvImporter.ImportReport> importCsv(Path file) {
+        try {
+            return Result.ok(new StudentCsvImporter(database).importFile(file));
+        } catch (IOException e) {
+            return Result.error(Status.IO_ERROR, "Error importing file: " + e.getMessage());
+        }
+    }
+    
+    // Returns the number of students written; course may be null for all
+    // Writes a snapshot without holding the service lock, so other calls carry on during a long export
+    public Result<Long> export(Path file, StudentExporter.Format format, String course, boolean gzip) {
+        try (StudentVersions.Snapshot snapshot = snapshot()) {
+            StudentExporter exporter = new StudentExporter(snapshot);
+            if (!isBlank(course)) {
+                exporter.setCourse(course);
+            }
+            exporter.setGzip(gzip);
+            return Result.ok(exporter.export(file, format));
+        } catch (IOException e) {
+            return Result.error(Status.IO_ERROR, "Error exporting students: " + e.getMessage());
+        }
+    }
+    
+    // A consistent view of every student for long scans; read it without holding the service lock, then close it
+    public synchronized StudentVersions.Snapshot snapshot() {
+        return database.snapshot();
+    }
+    
+    @Override
+    public synchronized void close() {
+        database.close();
+    }
+    
+    // Checks for a new student; also used by ConcurrentStudentService
+    static String validateNew(String firstName, String lastName, String email, String course, int semester,
+                              LocalDate dateOfBirth) {
+        String error = validate(firstName, lastName, email, course, semester);
+        if (error == null && dateOfBirth == null) {
+            error = "Date of birth is required";
+        } else if (error == null && dateOfBirth.isAfter(LocalDate.now())) {
+            error = "Date of birth is in the future";
+        }
+        return error;
+    }
+    
+    static String validateUpdate(String firstName, String lastName, String email, String course, int semester,
+                                 double gpa) {
+        String error = validate(firstName, lastName, email, course, semester);
+        if (error == null && !(Double.isFinite(gpa) && gpa >= 0)) {
+            error = "Invalid gpa: " + gpa;
+        }
+        return error;
+    }
+    
+    // Checks shared by add and update, matching the CSV importer's rules; returns the problem or null
+    private static String validate(String firstName, String lastName, String email, String course, int semester) {
+        if (isBlank(firstName)) {
+            return "First name is required";
+        }
+        if (isBlank(lastName)) {
+            return "Last name is required";
+        }
+        if (isBlank(email) || email.indexOf('@') <= 0) {
+            return "Invalid email: " + email;
+        }
+        if (isBlank(course)) {
+            return "Course is required";
+        }
+        if (semester < 1) {
+            return "Invalid semester: " + semester;
+        }
+        return null;
+    }
+    
+    private static List<Student> copies(List<Student> students) {
+        List<Student> copies = new ArrayList<>(students.size());
+        for (Student student : students) {
+            copies.add(student.copy());
+        }
+        return copies;
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+    
+    static <T> Result<T> notFound(int studentId) {
+        return Result.error(Status.NOT_FOUND, "Student not found: " + studentId);
+    }
+    
+    // Outcome of one operation: a value when the status is OK, otherwise a message for the caller
+    public static class Result<T> {
+        private final Status status;
+        private final T value;
+        private final String message;
+        
+        private Result(Status status, T value, String message) {
+            this.status = status;
+            this.value = value;
+            this.message = message;
+        }
+        
+        public static <T> Result<T> ok(T value) {
+            return new Result<>(Status.OK, value, null);
+        }
+        
+        public static <T> Result<T> error(Status status, String message) {
+            return new Result<>(status, null, message);
+        }
+        
+        public Status getStatus() { return status; }
+        public T getValue() { return value; }
+        public String getMessage() { return message; }
+        
+        public boolean isOk() {
+            return status == Status.OK;
+        }
+        
+        @Override
+        public String toString() {
+            return isOk() ? "OK: " + value : status + ": " + message;
+        }
+    }
+}
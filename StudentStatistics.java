@@ -0,0 +1,118 @@
+import java.util.*;
+
+/**
+ * StudentStatistics class keeping running aggregates over the student records
+ * StudentDatabase feeds it every add, update and delete, so reading the statistics never scans
+ * the students. GPA aggregates only count students whose GPA has been set (GPA > 0)
+ */
+public class StudentStatistics {
+    private static final double BUCKET_WIDTH = 0.05;
+    private static final int BUCKETS = 200;    // covers GPAs up to 10.0; higher values share the last bucket
+    
+    private int totalStudents;
+    private final Map<String, Integer> courseCounts;
+    private final Map<Integer, Integer> semesterCounts;
+    private final TreeMap<Double, Integer> gpaCounts;    // distinct GPA -> students, for exact min/max
+    private final int[] gpaHistogram;
+    private int gpaCount;
+    private double gpaSum;
+    
+    public StudentStatistics() {
+        this.courseCounts = new HashMap<>();
+        this.semesterCounts = new TreeMap<>();
+        this.gpaCounts = new TreeMap<>();
+        this.gpaHistogram = new int[BUCKETS];
+    }
+    
+    public void add(Student student) {
+        totalStudents++;
+        courseCounts.merge(student.getCourse(), 1, Integer::sum);
+        semesterCounts.merge(student.getSemester(), 1, Integer::sum);
+        double gpa = student.getGpa();
+        if (gpa > 0) {
+            gpaCount++;
+            gpaSum += gpa;
+            gpaCounts.merge(gpa, 1, Integer::sum);
+            gpaHistogram[bucket(gpa)]++;
+        }
+    }
+    
+    public void remove(Student student) {
+        totalStudents--;
+        decrement(courseCounts, student.getCourse());
+        decrement(semesterCounts, student.getSemester());
+        double gpa = student.getGpa();
+        if (gpa > 0) {
+            gpaCount--;
+            gpaSum -= gpa;
+            decrement(gpaCounts, gpa);
+            gpaHistogram[bucket(gpa)]--;
+        }
+    }
+    
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+    
+    private static <K> void decrement(Map<K, Integer> counts, K key) {
+        counts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+    
+    private static int bucket(double gpa) {
+        return Math.min(BUCKETS - 1, (int) (gpa / BUCKET_WIDTH));
+    }
+    
+    /**
+     * Immutable copy of the statistics at one point in time
+     */
+    public static class Snapshot {
+        private final int totalStudents;
+        private final Map<String, Integer> courseCounts;
+        private final Map<Integer, Integer> semesterCounts;
+        private final int gpaCount;
+        private final double gpaSum;
+        private final double minGpa;
+        private final double maxGpa;
+        private final int[] gpaHistogram;
+        
+        private Snapshot(StudentStatistics stats) {
+            this.totalStudents = stats.totalStudents;
+            this.courseCounts = Collections.unmodifiableMap(new HashMap<>(stats.courseCounts));
+            this.semesterCounts = Collections.unmodifiableMap(new TreeMap<>(stats.semesterCounts));
+            this.gpaCount = stats.gpaCount;
+            this.gpaSum = stats.gpaSum;
+            this.minGpa = stats.gpaCounts.isEmpty() ? 0 : stats.gpaCounts.firstKey();
+            this.maxGpa = stats.gpaCounts.isEmpty() ? 0 : stats.gpaCounts.lastKey();
+            this.gpaHistogram = stats.gpaHistogram.clone();
+        }
+        
+        public int getTotalStudents() { return totalStudents; }
+        public Map<String, Integer> getCourseCounts() { return courseCounts; }
+        public Map<Integer, Integer> getSemesterCounts() { return semesterCounts; }
+        public int getGpaCount() { return gpaCount; }
+        public double getGpaSum() { return gpaSum; }
+        public double getMinGpa() { return minGpa; }
+        public double getMaxGpa() { return maxGpa; }
+        
+        public double getAverageGpa() {
+            return gpaCount == 0 ? 0 : gpaSum / gpaCount;
+        }
+        
+        // Estimate the GPA below which the given fraction (0..1) of graded students fall
+        public double getGpaPercentile(double fraction) {
+            if (gpaCount == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(fraction * gpaCount));
+            long seen = 0;
+            for (int i = 0; i < gpaHistogram.length; i++) {
+                seen += gpaHistogram[i];
+                if (seen >= rank) {
+                    double estimate = (i + 0.5) * BUCKET_WIDTH;
+                    return Math.max(minGpa, Math.min(maxGpa, estimate));
+                }
+            }
+            return maxGpa;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+import java.io.Closeable;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * StudentStore interface for the student operations StudentHttpServer serves
+ * StudentService implements it over StudentDatabase, serializing every call; ConcurrentStudentService
+ * implements it over ConcurrentStudentDatabase, letting calls run side by side. Both validate input
+ * the same way and report failures through StudentService.Result. Students in results are never
+ * changed afterwards, so they can be read without holding any lock
+ */
+public interface StudentStore extends Closeable {
+    StudentService.Result<Student> addStudent(String firstName, String lastName, String email,
+                                              String phoneNumber, LocalDate dateOfBirth, String address,
+                                              String course, int semester);
+    
+    StudentService.Result<Student> getStudent(int studentId);
+    
+    StudentService.Result<Student> updateStudent(int studentId, String firstName, String lastName,
+                                                 String email, String phoneNumber, String address,
+                                                 String course, int semester, double gpa);
+    
+    // Update only the fields given, keeping the current value of each null one; the merge and the
+    // update are one step, so concurrent partial updates of different fields do not undo each other
+    StudentService.Result<Student> updateStudentFields(int studentId, String firstName, String lastName,
+                                                       String email, String phoneNumber, String address,
+                                                       String course, Integer semester, Double gpa);
+    
+    // Returns the deleted student
+    StudentService.Result<Student> deleteStudent(int studentId);
+    
+    StudentService.Result<List<Student>> query(StudentQuery query);
+    
+    // One page of students in the given order; start with a null cursor and pass back each page's next cursor
+    StudentService.Result<StudentPage> listStudents(StudentQuery.SortKey sortKey, String cursor, int limit);
+    
+    StudentService.Result<StudentStatistics.Snapshot> getStatistics();
+    
+    @Override
+    void close();
+}
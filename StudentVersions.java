@@ -0,0 +1,202 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * StudentVersions class keeping recent versions of every student so readers can scan a consistent snapshot
+ * Each change publishes a frozen copy of the student under the next version number, linked to the
+ * copy it replaces; a deletion publishes a tombstone. A reader pins the current version and sees,
+ * for every student, the newest copy at or below it, so it never sees a later change and never
+ * blocks the writer. Replaced copies are unlinked once no pinned snapshot can reach them.
+ * One thread (or lock holder) publishes at a time; snapshots may be opened, read and closed from any
+ * thread, and must be closed so old copies can be dropped
+ */
+public class StudentVersions {
+    private final ConcurrentHashMap<Integer, Version> heads;    // newest version of each student
+    private final ArrayDeque<Replaced> replaced;                // publisher only, in version order
+    private final TreeMap<Long, Integer> pins;                  // pinned version -> open snapshots; guarded by itself
+    private volatile long current;
+    
+    public StudentVersions(Collection<Student> students) {
+        this.heads = new ConcurrentHashMap<>(Math.max(16, students.size() * 4 / 3 + 1));
+        this.replaced = new ArrayDeque<>();
+        this.pins = new TreeMap<>();
+        for (Student student : students) {
+            heads.put(student.getStudentId(), new Version(0, student.copy(), null));
+        }
+    }
+    
+    // Record the current state of a student as a new version
+    public void publish(Student student) {
+        link(student.getStudentId(), student.copy());
+    }
+    
+    public void publishDelete(int studentId) {
+        if (heads.containsKey(studentId)) {
+            link(studentId, null);
+        }
+    }
+    
+    // Pin the current version; the snapshot sees exactly the students as of that version
+    public Snapshot snapshot() {
+        synchronized (pins) {
+            long version = current;
+            pins.merge(version, 1, Integer::sum);
+            return new Snapshot(version);
+        }
+    }
+    
+    public long getVersion() {
+        return current;
+    }
+    
+    // Versions still reachable by the oldest open snapshot are kept; the rest are unlinked
+    private void link(int studentId, Student frozen) {
+        long version = current + 1;
+        Version older = heads.get(studentId);
+        heads.put(studentId, new Version(version, frozen, older));
+        current = version;
+        if (older != null || frozen == null) {
+            replaced.add(new Replaced(version, studentId));
+        }
+        collect();
+    }
+    
+    private void collect() {
+        long horizon;
+        synchronized (pins) {
+            horizon = pins.isEmpty() ? current : pins.firstKey();
+        }
+        while (!replaced.isEmpty() && replaced.peek().version <= horizon) {
+            int studentId = replaced.poll().studentId;
+            Version head = heads.get(studentId);
+            if (head == null) {
+                continue;
+            }
+            if (head.student == null && head.version <= horizon) {
+                heads.remove(studentId, head);
+                continue;
+            }
+            Version visible = head.at(horizon);
+            if (visible != null) {
+                visible.older = null;
+            }
+        }
+    }
+    
+    private void unpin(long version) {
+        synchronized (pins) {
+            pins.computeIfPresent(version, (pinned, open) -> open == 1 ? null : open - 1);
+        }
+    }
+    
+    private static class Version {
+        final long version;
+        final Student student;    // frozen copy, or null once deleted
+        volatile Version older;
+        
+        Version(long version, Student student, Version older) {
+            this.version = version;
+            this.student = student;
+            this.older = older;
+        }
+        
+        // Newest version at or below the given one, or null if the student did not exist yet
+        Version at(long pinned) {
+            Version v = this;
+            while (v != null && v.version > pinned) {
+                v = v.older;
+            }
+            return v;
+        }
+    }
+    
+    private static class Replaced {
+        final long version;       // version that replaced the older copy
+        final int studentId;
+        
+        Replaced(long version, int studentId) {
+            this.version = version;
+            this.studentId = studentId;
+        }
+    }
+    
+    // Consistent read-only view of every student as of one version; the students in it are frozen copies
+    // and must not be modified. Iteration never throws ConcurrentModificationException
+    public class Snapshot implements Iterable<Student>, AutoCloseable {
+        private final long version;
+        private boolean closed;
+        
+        Snapshot(long version) {
+            this.version = version;
+        }
+        
+        public long getVersion() {
+            return version;
+        }
+        
+        // The student as of this snapshot, or null
+        public Student getStudent(int studentId) {
+            ensureOpen();
+            Version head = heads.get(studentId);
+            Version visible = head == null ? null : head.at(version);
+            return visible == null ? null : visible.student;
+        }
+        
+        @Override
+        public Iterator<Student> iterator() {
+            ensureOpen();
+            Iterator<Version> it = heads.values().iterator();
+            return new Iterator<Student>() {
+                private Student next = advance();
+                
+                private Student advance() {
+                    while (it.hasNext()) {
+                        Version visible = it.next().at(version);
+                        if (visible != null && visible.student != null) {
+                            return visible.student;
+                        }
+                    }
+                    return null;
+                }
+                
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+                
+                @Override
+                public Student next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    Student student = next;
+                    next = advance();
+                    return student;
+                }
+            };
+        }
+        
+        public List<Student> toList() {
+            List<Student> students = new ArrayList<>();
+            for (Student student : this) {
+                students.add(student);
+            }
+            return students;
+        }
+        
+        // Release the pin so the versions only this snapshot could see can be dropped
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                unpin(version);
+            }
+        }
+        
+        private synchronized void ensureOpen() {
+            if (closed) {
+                throw new IllegalStateException("Snapshot is closed");
+            }
+        }
+    }
+}
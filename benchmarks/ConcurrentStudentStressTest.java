@@ -0,0 +1,267 @@
+import java.io.File;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ConcurrentStudentStressTest class checking ConcurrentStudentDatabase under many concurrent writers
+ * First every writer races to add the same set of emails; each email must be taken exactly once.
+ * Then writers add, update, delete and change subjects on a shared pool of emails and IDs while
+ * readers check that every student they see is whole (an update always writes matching first and
+ * last names and a GPA derived from them), and a compactor folds the journal now and then. At the
+ * end the email index must match the records, and a database reopened from the files must hold
+ * exactly the same students. Exits with status 1 if any check fails.
+ * Run with: mvn -P jmh package && java -cp target/benchmarks.jar ConcurrentStudentStressTest 8 2 10
+ * (writer threads, reader threads, seconds)
+ */
+public class ConcurrentStudentStressTest {
+    private static final int RACE_EMAILS = 2000;
+    private static final int EMAIL_POOL = 500;    // small, so the adds and email changes that use it keep colliding
+    private static final int TARGETS = 4096;      // recently added IDs that writers pick from
+    private static final LocalDate BIRTH = LocalDate.of(2000, 1, 1);
+    
+    public static void main(String[] args) throws Exception {
+        int writers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        
+        File dataFile = File.createTempFile("concurrent-stress", ".dat");
+        dataFile.delete();
+        List<String> failures = new ArrayList<>();
+        try {
+            ConcurrentStudentDatabase database = new ConcurrentStudentDatabase(dataFile.getPath());
+            race(database, writers, failures);
+            mix(database, writers, readers, seconds, failures);
+            checkEmailIndex(database, failures);
+            
+            Map<Integer, String> before = describeAll(database);
+            database.close();
+            ConcurrentStudentDatabase reloaded = new ConcurrentStudentDatabase(dataFile.getPath());
+            Map<Integer, String> after = describeAll(reloaded);
+            reloaded.close();
+            if (!before.equals(after)) {
+                failures.add("reload: " + before.size() + " students in memory, " + after.size() + " reloaded, "
+                             + differences(before, after) + " differ");
+            }
+            System.out.printf("reload: %,d students reloaded%n", after.size());
+        } finally {
+            dataFile.delete();
+            new File(dataFile.getPath() + ".log").delete();
+            new File(dataFile.getPath() + ".tmp").delete();
+        }
+        
+        if (failures.isEmpty()) {
+            System.out.println("PASS");
+        } else {
+            failures.forEach(failure -> System.out.println("FAIL " + failure));
+            System.exit(1);
+        }
+    }
+    
+    // Every writer adds every race email, starting together; each must succeed exactly once
+    private static void race(ConcurrentStudentDatabase database, int writers, List<String> failures) throws InterruptedException {
+        AtomicIntegerArray wins = new AtomicIntegerArray(RACE_EMAILS);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[writers];
+        for (int w = 0; w < writers; w++) {
+            int offset = w * 37;    // threads walk the emails from different places
+            threads[w] = new Thread(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < RACE_EMAILS; i++) {
+                    int e = (i + offset) % RACE_EMAILS;
+                    String name = "race" + e;
+                    if (database.addStudent(name, name, name + "@race.test", null, BIRTH, null, "Racing", 1) >= 0) {
+                        wins.incrementAndGet(e);
+                    }
+                }
+            });
+            threads[w].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        int wrong = 0;
+        for (int e = 0; e < RACE_EMAILS; e++) {
+            if (wins.get(e) != 1) {
+                wrong++;
+            }
+        }
+        if (wrong > 0) {
+            failures.add("race: " + wrong + " emails were not added exactly once");
+        }
+        System.out.printf("race: %d writers added %,d emails, %d not exactly once%n", writers, RACE_EMAILS, wrong);
+    }
+    
+    private static void mix(ConcurrentStudentDatabase database, int writers, int readers, int seconds,
+                            List<String> failures) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicIntegerArray targets = new AtomicIntegerArray(TARGETS);
+        AtomicInteger added = new AtomicInteger();
+        for (Student student : database.getAllStudents()) {
+            targets.set(added.getAndIncrement() % TARGETS, student.getStudentId());
+        }
+        AtomicLong attempts = new AtomicLong();
+        AtomicLong writes = new AtomicLong();    // attempts that changed something
+        AtomicLong reads = new AtomicLong();
+        AtomicLong torn = new AtomicLong();
+        AtomicInteger compactions = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (long n = 0; running.get(); n++) {
+                    String name = "w" + writer + "x" + n;
+                    String email = random.nextInt(4) == 0 ? "user" + random.nextInt(EMAIL_POOL) + "@pool.test"
+                        : name + "@stress.test";
+                    int studentId = targets.get(random.nextInt(Math.min(added.get(), TARGETS)));
+                    int op = random.nextInt(20);
+                    boolean done;
+                    if (op < 4) {
+                        int newId = database.addStudent(name, name, email, null, BIRTH, null, "Stress", 1 + random.nextInt(8));
+                        if (newId >= 0) {
+                            targets.set(added.getAndIncrement() % TARGETS, newId);
+                        }
+                        done = newId >= 0;
+                    } else if (op < 15) {
+                        done = database.updateStudent(studentId, name, name, email, null, null, "Stress",
+                                                      1 + random.nextInt(8), gpaOf(name));
+                    } else if (op < 16) {
+                        done = database.deleteStudent(studentId) != null;
+                    } else if (op < 18) {
+                        done = database.addSubject(studentId, "Subject" + random.nextInt(20));
+                    } else {
+                        done = database.removeSubject(studentId, "Subject" + random.nextInt(20));
+                    }
+                    attempts.incrementAndGet();
+                    if (done) {
+                        writes.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (int r = 0; r < readers; r++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    List<Student> seen = random.nextInt(100) == 0
+                        ? database.searchByCourse("stress")
+                        : Collections.singletonList(database.getStudent(targets.get(random.nextInt(TARGETS))));
+                    for (Student student : seen) {
+                        if (student != null && !isWhole(student)) {
+                            torn.incrementAndGet();
+                        }
+                    }
+                    reads.incrementAndGet();
+                }
+            }));
+        }
+        threads.add(new Thread(() -> {
+            while (running.get()) {
+                sleepQuietly(500);
+                database.compact();
+                compactions.incrementAndGet();
+            }
+        }));
+        
+        threads.forEach(Thread::start);
+        sleepQuietly(seconds * 1000L);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (torn.get() > 0) {
+            failures.add("mix: " + torn.get() + " torn students read");
+        }
+        System.out.printf("mix: %,d writes (%,d attempted), %,d reads, %d compactions in %d s; %d torn reads%n",
+                          writes.get(), attempts.get(), reads.get(), compactions.get(), seconds, torn.get());
+    }
+    
+    // Every student's email resolves to it, and no two students share an email
+    private static void checkEmailIndex(ConcurrentStudentDatabase database, List<String> failures) {
+        List<Student> students = database.getAllStudents();
+        Set<String> emails = new HashSet<>();
+        int duplicates = 0;
+        int unindexed = 0;
+        for (Student student : students) {
+            if (!emails.add(student.getEmail().toLowerCase(Locale.ROOT))) {
+                duplicates++;
+            }
+            Student owner = database.findByEmail(student.getEmail());
+            if (owner == null || owner.getStudentId() != student.getStudentId()) {
+                unindexed++;
+            }
+        }
+        int stale = 0;    // pool emails the index still hands out for a student that no longer has them
+        for (int e = 0; e < EMAIL_POOL; e++) {
+            String email = "user" + e + "@pool.test";
+            Student owner = database.findByEmail(email);
+            if (owner != null && !owner.getEmail().equalsIgnoreCase(email)) {
+                stale++;
+            }
+        }
+        if (duplicates > 0 || unindexed > 0 || stale > 0) {
+            failures.add("emails: " + duplicates + " duplicated, " + unindexed + " not indexed, " + stale + " stale index entries");
+        }
+        System.out.printf("emails: %,d students, %d duplicated, %d not indexed, %d stale index entries%n",
+                          students.size(), duplicates, unindexed, stale);
+    }
+    
+    // Writers always set matching names and the GPA derived from them (new students have none), so a mix of two writes shows
+    private static boolean isWhole(Student student) {
+        if (!student.getFirstName().equals(student.getLastName())) {
+            return false;
+        }
+        return student.getGpa() == 0.0 || student.getGpa() == gpaOf(student.getFirstName());
+    }
+    
+    private static double gpaOf(String name) {
+        return (name.hashCode() & 0x3ff) / 256.0;
+    }
+    
+    private static Map<Integer, String> describeAll(ConcurrentStudentDatabase database) {
+        Map<Integer, String> students = new HashMap<>();
+        for (Student s : database.getAllStudents()) {
+            students.put(s.getStudentId(), String.join("|", s.getFirstName(), s.getLastName(), s.getEmail(),
+                         String.valueOf(s.getPhoneNumber()), String.valueOf(s.getAddress()), s.getCourse(),
+                         String.valueOf(s.getDateOfBirth()), String.valueOf(s.getEnrollmentDate()),
+                         String.valueOf(s.getSemester()), String.valueOf(s.getGpa()), s.getSubjects().toString()));
+        }
+        return students;
+    }
+    
+    private static int differences(Map<Integer, String> before, Map<Integer, String> after) {
+        Set<Integer> ids = new HashSet<>(before.keySet());
+        ids.addAll(after.keySet());
+        int different = 0;
+        for (Integer id : ids) {
+            if (!Objects.equals(before.get(id), after.get(id))) {
+                different++;
+            }
+        }
+        return different;
+    }
+    
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * HttpLoadGenerator class measuring StudentHttpServer from local HTTP clients
+ * Starts a server on a free port over a generated database, then runs closed-loop clients for a
+ * fixed time. Requests are mostly lookups by ID, with some filtered listings and some updates.
+ * Reports throughput and latency percentiles, and counts any non-2xx response as an error.
+ * Run with: mvn -P jmh package && java -cp target/benchmarks.jar HttpLoadGenerator 100000 32 20
+ * (students, client threads, seconds)
+ */
+public class HttpLoadGenerator {
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        
+        File dataFile = File.createTempFile("http-load", ".dat");
+        dataFile.delete();
+        StudentDatabase database = new StudentDatabase(dataFile.getPath());
+        new StudentDataGenerator(42).populate(database, students);
+        int firstId = database.getNextStudentId() - students;
+        StudentService service = new StudentService(database);
+        StudentHttpServer server = new StudentHttpServer(service, 0);
+        server.start();
+        String base = "http://localhost:" + server.getPort();
+        
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        int[] errors = new int[clients];
+        CountDownLatch done = new CountDownLatch(clients);
+        long warmupEnd = System.nanoTime() + Duration.ofSeconds(Math.min(5, seconds / 4)).toNanos();
+        long end = warmupEnd + Duration.ofSeconds(seconds).toNanos();
+        
+        for (int c = 0; c < clients; c++) {
+            int index = c;
+            Thread thread = new Thread(() -> {
+                Random random = new Random(index);
+                long[] samples = new long[1 << 16];
+                int count = 0;
+                try {
+                    while (true) {
+                        long start = System.nanoTime();
+                        if (start >= end) {
+                            break;
+                        }
+                        int studentId = firstId + random.nextInt(students);
+                        int pick = random.nextInt(100);
+                        HttpRequest request;
+                        if (pick < 80) {
+                            request = HttpRequest.newBuilder(URI.create(base + "/students/" + studentId)).build();
+                        } else if (pick < 95) {
+                            request = HttpRequest.newBuilder(URI.create(base + "/students?semester=" + (1 + random.nextInt(8))
+                                                                        + "&sort=gpa&limit=20")).build();
+                        } else {
+                            String body = "{\"gpa\":" + random.nextInt(401) / 100.0 + "}";
+                            request = HttpRequest.newBuilder(URI.create(base + "/students/" + studentId))
+                                .PUT(HttpRequest.BodyPublishers.ofString(body)).build();
+                        }
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        long elapsed = System.nanoTime() - start;
+                        if (start < warmupEnd) {
+                            continue;
+                        }
+                        if (response.statusCode() / 100 != 2) {
+                            errors[index]++;
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = elapsed;
+                    }
+                } catch (Exception e) {
+                    System.out.println("Client " + index + " failed: " + e);
+                } finally {
+                    latencies[index] = Arrays.copyOf(samples, count);
+                    counts[index] = count;
+                    done.countDown();
+                }
+            });
+            thread.start();
+        }
+        done.await();
+        server.stop();
+        service.close();
+        dataFile.delete();
+        new File(dataFile.getPath() + ".log").delete();
+        
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (long[] samples : latencies) {
+            System.arraycopy(samples, 0, all, offset, samples.length);
+            offset += samples.length;
+        }
+        Arrays.sort(all);
+        System.out.printf("%,d students, %d clients, %d s%n", students, clients, seconds);
+        System.out.printf("%,d requests (%,.0f requests/s), %d errors%n", total, total / (double) seconds, Arrays.stream(errors).sum());
+        if (total > 0) {
+            System.out.printf("latency p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+                              percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999), all[total - 1] / 1e6);
+        }
+    }
+    
+    private static double percentile(long[] sorted, double fraction) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * NameSearchBenchmark class comparing NameIndex searches with the linear scan they replaced
+ * Builds students whose last names carry a number from 0 to 999, so queries range from a few hundred
+ * hits ("patel12") to a third of the table ("ohn"). For each query both ways are run repeatedly and
+ * the best time is reported. The scan is the old searchByName loop: lower-case every full name and
+ * test it for the query
+ * Run with: mvn -P jmh package && java -Xmx4g -cp target/benchmarks.jar NameSearchBenchmark 1000000
+ */
+public class NameSearchBenchmark {
+    private static final String[] QUERIES = {"patel12", "jennifer smith7", "rodriguez99", "smith", "ohn", "an"};
+    private static final int ROUNDS = 10;
+    
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        StudentDataGenerator generator = new StudentDataGenerator(42);
+        SplittableRandom random = new SplittableRandom(7);
+        List<Student> students = new ArrayList<>(count);
+        NameIndex index = new NameIndex();
+        for (int i = 0; i < count; i++) {
+            Student draft = generator.next();
+            Student student = new Student(1001 + i, draft.getFirstName(), draft.getLastName() + random.nextInt(1000),
+                                          draft.getEmail(), draft.getPhoneNumber(), draft.getDateOfBirth(),
+                                          draft.getAddress(), draft.getCourse(), draft.getSemester());
+            students.add(student);
+            index.add(student.getStudentId(), student.getFullName());
+        }
+        
+        System.out.printf("%,d students, best of %d%n", count, ROUNDS);
+        for (String query : QUERIES) {
+            long scanBest = Long.MAX_VALUE;
+            long indexBest = Long.MAX_VALUE;
+            int scanHits = 0;
+            int indexHits = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                scanHits = scan(students, query).size();
+                scanBest = Math.min(scanBest, System.nanoTime() - start);
+                start = System.nanoTime();
+                indexHits = index.search(query).size();
+                indexBest = Math.min(indexBest, System.nanoTime() - start);
+            }
+            if (scanHits != indexHits) {
+                throw new IllegalStateException("Hit counts differ for " + query + ": " + scanHits + " vs " + indexHits);
+            }
+            System.out.printf("%-18s scan %8.2f ms  index %8.2f ms  (%,d hits)%n",
+                              "\"" + query + "\"", scanBest / 1e6, indexBest / 1e6, indexHits);
+        }
+    }
+    
+    private static List<Student> scan(List<Student> students, String query) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        List<Student> results = new ArrayList<>();
+        for (Student student : students) {
+            if (student.getFullName().toLowerCase(Locale.ROOT).contains(needle)) {
+                results.add(student);
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,115 @@
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RegistrationRushLoadTest class simulating the opening minutes of course registration
+ * Many threads enroll students at once, mostly into a few popular courses, and some drop again.
+ * Afterwards every course is checked: no overbooked seats, seat counters equal to the rosters,
+ * no student both enrolled and waitlisted, and no waitlist while a seat is free.
+ * Run with: mvn -P jmh package && java -cp target/benchmarks.jar RegistrationRushLoadTest 16 200000
+ */
+public class RegistrationRushLoadTest {
+    private static final int COURSES = 50;
+    private static final int POPULAR_COURSES = 5;    // receive most of the requests
+    private static final int STUDENTS = 20000;
+    
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() * 2;
+        int requestsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+        
+        CourseCatalog catalog = new CourseCatalog();
+        for (int i = 0; i < COURSES; i++) {
+            int capacity = i < POPULAR_COURSES ? 100 : 400;
+            catalog.addCourse(new Course(courseId(i), "Course " + i, "", 3, "General", "Staff", "Fall", capacity));
+        }
+        
+        AtomicLong enrolled = new AtomicLong();
+        AtomicLong waitlisted = new AtomicLong();
+        AtomicLong dropped = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < requestsPerThread; i++) {
+                    int studentId = 1001 + random.nextInt(STUDENTS);
+                    // Eight requests in ten go to the popular courses
+                    String courseId = courseId(random.nextInt(10) < 8 ? random.nextInt(POPULAR_COURSES) : random.nextInt(COURSES));
+                    int action = random.nextInt(10);
+                    if (action < 6) {
+                        CourseCatalog.EnrollmentResult result = catalog.enroll(studentId, courseId);
+                        if (result == CourseCatalog.EnrollmentResult.ENROLLED) {
+                            enrolled.incrementAndGet();
+                        } else if (result == CourseCatalog.EnrollmentResult.WAITLISTED) {
+                            waitlisted.incrementAndGet();
+                        }
+                    } else if (action < 9) {
+                        if (catalog.drop(studentId, courseId)) {
+                            dropped.incrementAndGet();
+                        }
+                    } else {
+                        catalog.leaveWaitlist(studentId, courseId);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        
+        long requests = (long) threads * requestsPerThread;
+        System.out.printf("%d threads, %,d requests in %.2f s (%,.0f requests/s)%n",
+                          threads, requests, seconds, requests / seconds);
+        System.out.printf("enrolled %,d, waitlisted %,d, dropped %,d%n", enrolled.get(), waitlisted.get(), dropped.get());
+        
+        int violations = 0;
+        for (Course course : catalog.getCourses()) {
+            List<Integer> roster = catalog.getEnrolledStudents(course.getCourseId());
+            List<Integer> waitlist = catalog.getWaitlist(course.getCourseId());
+            if (course.getCurrentEnrollment() > course.getMaxCapacity()) {
+                System.out.println(course.getCourseId() + ": " + course.getCurrentEnrollment() + " seats taken of " + course.getMaxCapacity());
+                violations++;
+            }
+            if (roster.size() != course.getCurrentEnrollment()) {
+                System.out.println(course.getCourseId() + ": roster of " + roster.size() + " but seat counter at " + course.getCurrentEnrollment());
+                violations++;
+            }
+            if (!waitlist.isEmpty() && !course.isFull()) {
+                System.out.println(course.getCourseId() + ": " + waitlist.size() + " waiting with seats free");
+                violations++;
+            }
+            for (Integer studentId : waitlist) {
+                if (roster.contains(studentId)) {
+                    System.out.println(course.getCourseId() + ": student " + studentId + " both enrolled and waitlisted");
+                    violations++;
+                }
+            }
+            for (Integer studentId : roster) {
+                if (!catalog.getCoursesForStudent(studentId).contains(course.getCourseId())) {
+                    System.out.println(course.getCourseId() + ": student " + studentId + " missing the reverse link");
+                    violations++;
+                }
+            }
+        }
+        System.out.println(violations == 0 ? "All invariants hold" : violations + " invariant violations");
+        if (violations > 0) {
+            System.exit(1);
+        }
+    }
+    
+    private static String courseId(int index) {
+        return String.format("C%03d", index);
+    }
+}
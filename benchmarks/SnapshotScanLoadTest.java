@@ -0,0 +1,132 @@
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SnapshotScanLoadTest class checking that snapshot scans stay consistent while a writer keeps going
+ * A writer thread sweeps the students in ID order, setting every semester to the round number, so
+ * any consistent view in ID order is one round's value followed by the previous round's. Reader
+ * threads scan snapshots and count views that break that pattern or miss students. The run ends by
+ * timing the writer during full exports, first holding the service lock as exports used to, then
+ * from a snapshot.
+ * Run with: mvn -P jmh package && java -cp target/benchmarks.jar SnapshotScanLoadTest 100000 2 20
+ * (students, reader threads, seconds)
+ */
+public class SnapshotScanLoadTest {
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        
+        File dataFile = File.createTempFile("snapshot-scan", ".dat");
+        dataFile.delete();
+        File exportFile = File.createTempFile("snapshot-scan", ".csv");
+        StudentDatabase database = new StudentDatabase(dataFile.getPath());
+        new StudentDataGenerator(42).populate(database, count);
+        int firstId = database.getNextStudentId() - count;
+        
+        try (StudentService service = new StudentService(database)) {
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicLong writes = new AtomicLong();
+            sweep(service, firstId, count, 1, running, writes);    // every student starts in the same semester
+            writes.set(0);
+            Thread writer = startWriter(service, firstId, count, running, writes);
+            
+            AtomicLong scans = new AtomicLong();
+            AtomicLong torn = new AtomicLong();
+            Thread[] scanners = new Thread[readers];
+            for (int r = 0; r < readers; r++) {
+                scanners[r] = new Thread(() -> {
+                    while (running.get()) {
+                        try (StudentVersions.Snapshot snapshot = service.snapshot()) {
+                            List<Student> students = snapshot.toList();
+                            students.sort(Comparator.comparingInt(Student::getStudentId));
+                            if (students.size() != count || !isOneSweep(students)) {
+                                torn.incrementAndGet();
+                            }
+                        }
+                        scans.incrementAndGet();
+                    }
+                });
+                scanners[r].start();
+            }
+            
+            Thread.sleep(seconds * 1000L);
+            long scanWrites = writes.get();
+            running.set(false);
+            for (Thread scanner : scanners) {
+                scanner.join();
+            }
+            writer.join();
+            System.out.printf("%,d students, %d readers, %d s%n", count, readers, seconds);
+            System.out.printf("%,d snapshot scans, %d inconsistent; %,d writes meanwhile (%,.0f writes/s)%n",
+                              scans.get(), torn.get(), scanWrites, scanWrites / (double) seconds);
+            
+            running.set(true);
+            writer = startWriter(service, firstId, count, running, writes);
+            Path path = exportFile.toPath();
+            long start = System.nanoTime();
+            long before = writes.get();
+            for (int i = 0; i < 3; i++) {
+                synchronized (service) {
+                    new StudentExporter(database).export(path, StudentExporter.Format.CSV);
+                }
+            }
+            report("export under lock", writes.get() - before, start);
+            start = System.nanoTime();
+            before = writes.get();
+            for (int i = 0; i < 3; i++) {
+                service.export(path, StudentExporter.Format.CSV, null, false);
+            }
+            report("export snapshot", writes.get() - before, start);
+            running.set(false);
+            writer.join();
+        } finally {
+            dataFile.delete();
+            exportFile.delete();
+            new File(dataFile.getPath() + ".log").delete();
+        }
+    }
+    
+    private static Thread startWriter(StudentService service, int firstId, int count,
+                                      AtomicBoolean running, AtomicLong writes) {
+        Thread writer = new Thread(() -> {
+            for (int round = 1; running.get(); round++) {
+                sweep(service, firstId, count, round % 8 + 1, running, writes);
+            }
+        });
+        writer.start();
+        return writer;
+    }
+    
+    // Set every student's semester, in ID order, until stopped
+    private static void sweep(StudentService service, int firstId, int count, int semester,
+                              AtomicBoolean running, AtomicLong writes) {
+        for (int id = firstId; id < firstId + count && running.get(); id++) {
+            Student s = service.getStudent(id).getValue();
+            service.updateStudent(id, s.getFirstName(), s.getLastName(), s.getEmail(), s.getPhoneNumber(),
+                                  s.getAddress(), s.getCourse(), semester, s.getGpa());
+            writes.incrementAndGet();
+        }
+    }
+    
+    // Semesters in ID order must be a run of one round's value followed by a run of the previous round's
+    private static boolean isOneSweep(List<Student> students) {
+        int changes = 0;
+        for (int i = 1; i < students.size(); i++) {
+            if (students.get(i).getSemester() != students.get(i - 1).getSemester()) {
+                changes++;
+            }
+        }
+        return changes <= 1;
+    }
+    
+    private static void report(String phase, long writes, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-18s 3 exports in %6.2f s, %,d writes meanwhile (%,.0f writes/s)%n",
+                          phase, seconds, writes, writes / seconds);
+    }
+}
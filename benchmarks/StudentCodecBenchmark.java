@@ -0,0 +1,77 @@
+import java.io.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StudentCodecBenchmark class timing how long the StudentCodec file format takes to save and load
+ * For each size, generated students are saved and loaded through file streams after a few warm-up
+ * rounds; the best of the measured rounds and the file size are reported.
+ * Run with: mvn -P jmh package && java -Xmx4g -cp target/benchmarks.jar StudentCodecBenchmark 10000 100000 1000000
+ */
+public class StudentCodecBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+    
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length == 0 ? new int[] {10000, 100000, 1000000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        File file = File.createTempFile("codec-benchmark", ".dat");
+        try {
+            for (int size : sizes) {
+                List<Student> students = new StudentDataGenerator(42).next(size);    // drafts, all with ID 0
+                int rounds = size >= 1000000 ? 2 : ROUNDS;
+                
+                long codecSave = best(rounds, () -> saveCodec(file, students));
+                long codecSize = file.length();
+                long codecLoad = best(rounds, () -> loadCodec(file));
+                
+                System.out.printf("%,9d students  codec save %6d ms / load %6d ms / %6.1f MB%n",
+                                  size, codecSave, codecLoad, codecSize / 1e6);
+            }
+        } finally {
+            file.delete();
+        }
+    }
+    
+    private static void saveCodec(File file, List<Student> students) throws IOException {
+        try (StudentCodec.Encoder encoder = new StudentCodec.Encoder(new FileOutputStream(file), 1001 + students.size(), students.size())) {
+            for (Student student : students) {
+                encoder.write(student);
+            }
+        }
+    }
+    
+    private static void loadCodec(File file) throws IOException {
+        try (StudentCodec.Decoder decoder = new StudentCodec.Decoder(new FileInputStream(file))) {
+            Map<Integer, Student> students = new HashMap<>(decoder.getRecordCount() * 4 / 3 + 1);
+            for (int key = 1001; decoder.hasNext(); key++) {
+                students.put(key, decoder.next());
+            }
+            if (students.isEmpty()) {
+                throw new IOException("Nothing loaded");
+            }
+        }
+    }
+    
+    // Best wall time in milliseconds over the measured rounds, after warming up
+    private static long best(int rounds, Task task) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < rounds; i++) {
+            System.gc();
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, (System.nanoTime() - start) / 1000000);
+        }
+        return best;
+    }
+    
+    private interface Task {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,48 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StudentMapFootprint class comparing the heap cost of the primary index implementations
+ * Both maps hold the same Student objects, so the difference in retained heap is the map overhead.
+ * Run with: mvn -P jmh package && java -cp target/benchmarks.jar StudentMapFootprint 1000000
+ */
+public class StudentMapFootprint {
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        List<Student> students = new StudentDataGenerator(42).next(count);
+        int studentId = 1001;
+        
+        long baseline = usedHeap();
+        Map<Integer, Student> hashMap = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            hashMap.put(studentId + i, students.get(i));
+        }
+        long hashMapBytes = usedHeap() - baseline;
+        
+        baseline = usedHeap();
+        IntObjectMap<Student> intMap = new IntObjectMap<>();
+        for (int i = 0; i < count; i++) {
+            intMap.put(studentId + i, students.get(i));
+        }
+        long intMapBytes = usedHeap() - baseline;
+        
+        System.out.printf("%,d students%n", count);
+        System.out.printf("HashMap<Integer, Student>: %,d bytes (%.1f per entry)%n",
+                          hashMapBytes, (double) hashMapBytes / count);
+        System.out.printf("IntObjectMap<Student>:     %,d bytes (%.1f per entry)%n",
+                          intMapBytes, (double) intMapBytes / count);
+        // Keep every structure reachable until all measurements are taken
+        System.out.println(hashMap.size() + intMap.size() + students.size() > 0 ? "" : "-");
+    }
+    
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,70 @@
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * StudentServiceThroughput class driving StudentService in a loop, the way a script or batch job would
+ * Adds generated students, then mixes lookups, updates and searches, and reports operations per
+ * second for each phase. Nothing is printed per operation, so the figures show the service itself.
+ * Run with: mvn -P jmh package && java -cp target/benchmarks.jar StudentServiceThroughput 200000
+ */
+public class StudentServiceThroughput {
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        File dataFile = File.createTempFile("service-throughput", ".dat");
+        dataFile.delete();
+        List<Student> drafts = new StudentDataGenerator(42).next(count);
+        
+        try (StudentService service = new StudentService(new StudentDatabase(dataFile.getPath()))) {
+            long start = System.nanoTime();
+            int added = 0;
+            for (Student s : drafts) {
+                if (service.addStudent(s.getFirstName(), s.getLastName(), s.getEmail(), s.getPhoneNumber(),
+                                       s.getDateOfBirth(), s.getAddress(), s.getCourse(), s.getSemester()).isOk()) {
+                    added++;
+                }
+            }
+            report("add", added, start);
+            
+            Random random = new Random(7);
+            int firstId = service.getNextStudentId() - added;
+            start = System.nanoTime();
+            int found = 0;
+            for (int i = 0; i < count; i++) {
+                if (service.getStudent(firstId + random.nextInt(added)).isOk()) {
+                    found++;
+                }
+            }
+            report("get", found, start);
+            
+            start = System.nanoTime();
+            int updated = 0;
+            for (int i = 0; i < count; i++) {
+                Student s = service.getStudent(firstId + random.nextInt(added)).getValue();
+                if (service.updateStudent(s.getStudentId(), s.getFirstName(), s.getLastName(), s.getEmail(),
+                                          s.getPhoneNumber(), s.getAddress(), s.getCourse(), s.getSemester(),
+                                          random.nextInt(401) / 100.0).isOk()) {
+                    updated++;
+                }
+            }
+            report("update", updated, start);
+            
+            int searches = Math.max(1, count / 100);
+            start = System.nanoTime();
+            long matches = 0;
+            for (int i = 0; i < searches; i++) {
+                matches += service.searchByName(drafts.get(random.nextInt(count)).getLastName()).getValue().size();
+            }
+            report("search by name", searches, start);
+            System.out.println("(" + matches + " matches)");
+        } finally {
+            dataFile.delete();
+            new File(dataFile.getPath() + ".log").delete();
+        }
+    }
+    
+    private static void report(String phase, int operations, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-15s %,10d ops in %6.2f s  (%,.0f ops/s)%n", phase, operations, seconds, operations / seconds);
+    }
+}
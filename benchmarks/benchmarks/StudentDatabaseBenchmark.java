@@ -0,0 +1,137 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static benchmarks.StudentDatabaseHandles.*;
+
+/**
+ * StudentDatabaseBenchmark class measuring the StudentDatabase hot paths over generated datasets
+ * Run with: mvn -P jmh package && java -jar target/benchmarks.jar StudentDatabaseBenchmark -p size=100000
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StudentDatabaseBenchmark {
+    private static final long SEED = 42;
+    
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+    
+    private File directory;
+    private String dataFile;
+    private Object database;
+    private Object inserts;
+    private SplittableRandom random;
+    private PrintStream console;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        // Errors go to System.out; keep that out of the measurements
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        
+        directory = Files.createTempDirectory("student-bench").toFile();
+        dataFile = new File(directory, "students.dat").getPath();
+        database = (Object) NEW_DATABASE.invokeExact(dataFile);
+        Object generator = (Object) NEW_GENERATOR.invokeExact(SEED);
+        POPULATE.invokeExact(generator, database, size);
+        
+        // A separate email domain, so no measured insert is rejected as a duplicate of the populated data
+        inserts = (Object) NEW_GENERATOR_FOR_DOMAIN.invokeExact(SEED + 1, "insert.uni.edu");
+        random = new SplittableRandom(SEED);
+        // Build the lazily created indexes and views outside the measured calls
+        Object warm;
+        warm = (Object) SEARCH_BY_NAME.invokeExact(database, "smith");
+        warm = (Object) SEARCH_BY_COURSE.invokeExact(database, "physics");
+        warm = (Object) SORTED_BY_NAME.invokeExact(database);
+        warm = (Object) SORTED_BY_GPA.invokeExact(database);
+        warm = (Object) SORTED_BY_ID.invokeExact(database);
+        warm = (Object) GET_STATISTICS.invokeExact(database);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws Throwable {
+        CLOSE.invokeExact(database);
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+        System.setOut(console);
+    }
+    
+    @Benchmark
+    public boolean addStudent() throws Throwable {
+        return (boolean) ADD_NEXT.invokeExact(inserts, database);
+    }
+    
+    @Benchmark
+    public Object getStudent() throws Throwable {
+        return (Object) GET_STUDENT.invokeExact(database, 1001 + random.nextInt(size));
+    }
+    
+    @Benchmark
+    public Object searchByName() throws Throwable {
+        return (Object) SEARCH_BY_NAME.invokeExact(database, "patel");
+    }
+    
+    @Benchmark
+    public Object searchByCourse() throws Throwable {
+        return (Object) SEARCH_BY_COURSE.invokeExact(database, "engineering");
+    }
+    
+    @Benchmark
+    public Object getStudentsSortedByName() throws Throwable {
+        return (Object) SORTED_BY_NAME.invokeExact(database);
+    }
+    
+    @Benchmark
+    public Object getStudentsSortedByGPA() throws Throwable {
+        return (Object) SORTED_BY_GPA.invokeExact(database);
+    }
+    
+    @Benchmark
+    public Object getStudentsSortedById() throws Throwable {
+        return (Object) SORTED_BY_ID.invokeExact(database);
+    }
+    
+    @Benchmark
+    public Object getStatistics() throws Throwable {
+        return (Object) GET_STATISTICS.invokeExact(database);
+    }
+    
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public void saveToFile() throws Throwable {
+        COMPACT.invokeExact(database);
+    }
+    
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public void loadFromFile(Blackhole blackhole) throws Throwable {
+        Object loaded = (Object) NEW_DATABASE.invokeExact(dataFile);
+        for (Object student : (Collection<?>) (Object) STUDENTS_VIEW.invokeExact(loaded)) {
+            blackhole.consume(student);
+        }
+        CLOSE.invokeExact(loaded);
+    }
+}
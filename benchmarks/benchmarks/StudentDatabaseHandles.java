@@ -0,0 +1,76 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * StudentDatabaseHandles class binding the benchmarks to the application classes
+ * JMH only accepts benchmarks in a named package, and code in a named package cannot refer to
+ * the application's classes in the unnamed package directly. Constant method handles are
+ * inlined by the JIT, so calls through them cost the same as direct calls
+ */
+final class StudentDatabaseHandles {
+    static final MethodHandle NEW_DATABASE;
+    static final MethodHandle CLOSE;
+    static final MethodHandle GET_STUDENT;
+    static final MethodHandle SEARCH_BY_NAME;
+    static final MethodHandle SEARCH_BY_COURSE;
+    static final MethodHandle SORTED_BY_NAME;
+    static final MethodHandle SORTED_BY_GPA;
+    static final MethodHandle SORTED_BY_ID;
+    static final MethodHandle GET_STATISTICS;
+    static final MethodHandle COMPACT;
+    static final MethodHandle STUDENTS_VIEW;
+    static final MethodHandle NEW_GENERATOR;
+    static final MethodHandle NEW_GENERATOR_FOR_DOMAIN;
+    static final MethodHandle POPULATE;
+    static final MethodHandle ADD_NEXT;
+    
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> database = Class.forName("StudentDatabase");
+            Class<?> generator = Class.forName("StudentDataGenerator");
+            Class<?> student = Class.forName("Student");
+            
+            NEW_DATABASE = lookup.findConstructor(database, MethodType.methodType(void.class, String.class))
+                .asType(MethodType.methodType(Object.class, String.class));
+            CLOSE = virtual(lookup, database, "close", void.class);
+            GET_STUDENT = virtual(lookup, database, "getStudent", student, int.class);
+            SEARCH_BY_NAME = virtual(lookup, database, "searchByName", java.util.List.class, String.class);
+            SEARCH_BY_COURSE = virtual(lookup, database, "searchByCourse", java.util.List.class, String.class);
+            SORTED_BY_NAME = virtual(lookup, database, "getStudentsSortedByName", java.util.List.class);
+            SORTED_BY_GPA = virtual(lookup, database, "getStudentsSortedByGPA", java.util.List.class);
+            SORTED_BY_ID = virtual(lookup, database, "getStudentsSortedById", java.util.List.class);
+            GET_STATISTICS = virtual(lookup, database, "getStatistics", Class.forName("StudentStatistics$Snapshot"));
+            COMPACT = virtual(lookup, database, "compact", void.class);
+            STUDENTS_VIEW = virtual(lookup, database, "getStudentsView", java.util.Collection.class);
+            NEW_GENERATOR = lookup.findConstructor(generator, MethodType.methodType(void.class, long.class))
+                .asType(MethodType.methodType(Object.class, long.class));
+            NEW_GENERATOR_FOR_DOMAIN = lookup.findConstructor(generator, MethodType.methodType(void.class, long.class, String.class))
+                .asType(MethodType.methodType(Object.class, long.class, String.class));
+            POPULATE = virtual(lookup, generator, "populate", void.class, database, int.class);
+            ADD_NEXT = virtual(lookup, generator, "addNext", boolean.class, database);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    private StudentDatabaseHandles() {
+    }
+    
+    // Look up an instance method, typing the receiver, application-class parameters and any
+    // reference result as Object so the benchmarks can call it with invokeExact
+    private static MethodHandle virtual(MethodHandles.Lookup lookup, Class<?> owner, String name,
+                                        Class<?> returnType, Class<?>... parameterTypes)
+            throws ReflectiveOperationException {
+        MethodHandle handle = lookup.findVirtual(owner, name, MethodType.methodType(returnType, parameterTypes));
+        MethodType erased = MethodType.methodType(returnType.isPrimitive() ? returnType : Object.class, Object.class);
+        for (Class<?> parameterType : parameterTypes) {
+            erased = erased.appendParameterTypes(parameterType.getPackageName().isEmpty() && !parameterType.isPrimitive()
+                                                 ? Object.class : parameterType);
+        }
+        return handle.asType(erased);
+    }
+}